@@ -0,0 +1,106 @@
+import java.util.concurrent.locks.LockSupport;
+
+// what a player does while its draw deck is empty
+// first just retry, then Thread.onSpinWait, then yield, then park for doubling times up to a cap
+// one instance per player, counters are only written by the owning thread
+public class BackoffPolicy {
+    private final int spins;
+    private final int spinWaits;
+    private final int yields;
+    private final long minParkNanos;
+    private final long maxParkNanos;
+
+    private int failures; // empty draws in a row
+    private long parkNanos;
+
+    private volatile long spinRetries;
+    private volatile long spinWaitRetries;
+    private volatile long yieldRetries;
+    private volatile long parkRetries;
+
+    public BackoffPolicy() {
+        this(64, 256, 32, 10_000L, 10_000_000L);
+    }
+
+    public BackoffPolicy(int spins, int spinWaits, int yields, long minParkNanos, long maxParkNanos) {
+        if (spins < 0 || spinWaits < 0 || yields < 0 || minParkNanos <= 0 || maxParkNanos < minParkNanos) {
+            throw new IllegalArgumentException("Invalid backoff settings");
+        }
+        this.spins = spins;
+        this.spinWaits = spinWaits;
+        this.yields = yields;
+        this.minParkNanos = minParkNanos;
+        this.maxParkNanos = maxParkNanos;
+        this.parkNanos = minParkNanos;
+    }
+
+    // same settings, fresh counters
+    public BackoffPolicy copy() {
+        return new BackoffPolicy(spins, spinWaits, yields, minParkNanos, maxParkNanos);
+    }
+
+    // "spins,spinwaits,yields,minParkMicros,maxParkMicros"
+    public static BackoffPolicy parse(String spec) {
+        String[] parts = spec.split(",");
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Backoff needs spins,spinwaits,yields,minParkMicros,maxParkMicros");
+        }
+        try {
+            return new BackoffPolicy(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                    Integer.parseInt(parts[2].trim()), Long.parseLong(parts[3].trim()) * 1000,
+                    Long.parseLong(parts[4].trim()) * 1000);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid backoff settings: " + spec);
+        }
+    }
+
+    // called after each empty draw
+    public void idle() {
+        int attempt = failures++;
+        if (attempt < spins) {
+            spinRetries++;
+            return;
+        }
+        attempt -= spins;
+        if (attempt < spinWaits) {
+            spinWaitRetries++;
+            Thread.onSpinWait();
+            return;
+        }
+        attempt -= spinWaits;
+        if (attempt < yields) {
+            yieldRetries++;
+            Thread.yield();
+            return;
+        }
+        parkRetries++;
+        LockSupport.parkNanos(parkNanos);
+        parkNanos = Math.min(parkNanos * 2, maxParkNanos);
+    }
+
+    // called after a successful draw
+    public void reset() {
+        failures = 0;
+        parkNanos = minParkNanos;
+    }
+
+    public long getSpinRetries() {
+        return spinRetries;
+    }
+
+    public long getSpinWaitRetries() {
+        return spinWaitRetries;
+    }
+
+    public long getYieldRetries() {
+        return yieldRetries;
+    }
+
+    public long getParkRetries() {
+        return parkRetries;
+    }
+
+    public long getTotalRetries() {
+        return spinRetries + spinWaitRetries + yieldRetries + parkRetries;
+    }
+}
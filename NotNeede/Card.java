@@ -1,32 +1,48 @@
-public class Card {
-    private final int denomination;
-    
-    public Card(int denomination) {
-        if (denomination < 0) {
-            throw new IllegalArgumentException("Card denomination must be non-negative");
-        }
-        this.denomination = denomination;
-    }
-
-    public int getDenomination() {
-        return denomination;
-    }
-    
-    @Override
-    public String toString() {
-        return String.valueOf(denomination);
-    }
-    
-    @Override
-    public boolean equals(Object obj) {
-        if (this == obj) return true;
-        if (obj == null || getClass() != obj.getClass()) return false;
-        Card card = (Card) obj;
-        return denomination == card.denomination;
-    }
-
-    @Override
-    public int hashCode() {
-        return Integer.hashCode(denomination);
-    }
+public class Card {
+    // cards are immutable so small denominations can share one instance each
+    private static final Card[] CACHE = new Card[1024];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new Card(i);
+        }
+    }
+
+    private final int denomination;
+    
+    public Card(int denomination) {
+        if (denomination < 0) {
+            throw new IllegalArgumentException("Card denomination must be non-negative");
+        }
+        this.denomination = denomination;
+    }
+
+    public static Card of(int denomination) {
+        if (denomination >= 0 && denomination < CACHE.length) {
+            return CACHE[denomination];
+        }
+        return new Card(denomination);
+    }
+
+    public int getDenomination() {
+        return denomination;
+    }
+    
+    @Override
+    public String toString() {
+        return String.valueOf(denomination);
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        Card card = (Card) obj;
+        return denomination == card.denomination;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(denomination);
+    }
 }
\ No newline at end of file
@@ -1,79 +1,105 @@
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.locks.ReentrantLock;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
-
-public class CardDeck {
-    private final ConcurrentLinkedQueue<Card> cards;
-    private final int deckNumber;
-    private final ReentrantLock lock;
-    
-    public CardDeck(int deckNumber) {
-        this.cards = new ConcurrentLinkedQueue<>();
-        this.deckNumber = deckNumber;
-        this.lock = new ReentrantLock();
-    }
-
-    public Card drawCard() {
-        lock.lock();
-        try {
-            return cards.poll(); // null if empty
-        } finally {
-            lock.unlock();
-        }
-    }
-
-    public void discardCard(Card card) {
-        lock.lock();
-        try {
-            cards.offer(card);
-        } finally {
-            lock.unlock();
-        }
-    }
-
-    public void addCard(Card card) {
-        cards.offer(card);
-    }
-
-    public boolean isEmpty() {
-        return cards.isEmpty();
-    }
-
-    public int size() {
-        return cards.size();
-    }
-
-    public int getDeckNumber() {
-        return deckNumber;
-    }
-
-    public void writeToFile(String filename) {
-        lock.lock();
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
-            writer.println(this.toString());
-        } catch (IOException e) {
-            System.err.println("Error writing deck " + deckNumber + " to file: " + e.getMessage());
-        } finally {
-            lock.unlock();
-        }
-    }
-
-    @Override
-    public String toString() {
-        lock.lock();
-        try {
-            StringBuilder sb = new StringBuilder();
-            sb.append("deck").append(deckNumber).append(" contents:");
-            
-            for (Card card : cards) {
-                sb.append(" ").append(card);
-            }
-            
-            return sb.toString();
-        } finally {
-            lock.unlock();
-        }
-    }
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class CardDeck {
+    private final ConcurrentLinkedQueue<Card> cards;
+    private final int deckNumber;
+    private final ReentrantLock lock;
+    private final AtomicInteger count; // queue size() walks every node, this doesnt
+    
+    public CardDeck(int deckNumber) {
+        this.cards = new ConcurrentLinkedQueue<>();
+        this.deckNumber = deckNumber;
+        this.lock = new ReentrantLock();
+        this.count = new AtomicInteger();
+    }
+
+    public Card drawCard() {
+        lock.lock();
+        try {
+            Card card = cards.poll(); // null if empty
+            if (card != null) {
+                count.decrementAndGet();
+            }
+            return card;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void discardCard(Card card) {
+        lock.lock();
+        try {
+            cards.offer(card);
+            count.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void addCard(Card card) {
+        cards.offer(card);
+        count.incrementAndGet();
+    }
+
+    public boolean isEmpty() {
+        return count.get() == 0;
+    }
+
+    // safe to poll from any thread without touching the lock
+    public int size() {
+        return count.get();
+    }
+
+    public int getDeckNumber() {
+        return deckNumber;
+    }
+
+    public int[] getDenominations() {
+        lock.lock();
+        try {
+            return cards.stream().mapToInt(Card::getDenomination).toArray();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // this deck's part of GameSnapshot.fingerprint, decks that can walk their cards in place override it
+    long fingerprint(long hash) {
+        int[] denominations = getDenominations();
+        return GameSnapshot.mix(hash, denominations, denominations.length);
+    }
+
+    public void writeToFile(String filename) {
+        writeToFile(filename, OutputFilePool.getDefault());
+    }
+
+    public void writeToFile(String filename, OutputFilePool pool) {
+        lock.lock();
+        try {
+            OutputFile writer = pool.openFile(filename, false);
+            writer.println(this.toString());
+            writer.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            StringBuilder sb = new StringBuilder();
+            sb.append("deck").append(deckNumber).append(" contents:");
+            
+            for (Card card : cards) {
+                sb.append(" ").append(card);
+            }
+            
+            return sb.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
 }
\ No newline at end of file
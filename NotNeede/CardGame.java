@@ -1,189 +1,788 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
-import java.util.concurrent.atomic.AtomicInteger;
-
-public class CardGame {
-    private int numPlayers;
-    private List<Card> pack;
-    private List<Player> players;
-    private List<CardDeck> decks;
-    private AtomicInteger winningPlayer;
-
-    public CardGame() {
-        this.pack = new ArrayList<>();
-        this.players = new ArrayList<>();
-        this.decks = new ArrayList<>();
-        this.winningPlayer = new AtomicInteger(0); // 0 means no winner yet
-    }
-
-    private boolean readAndValidatePack(String filename) {
-        pack.clear();
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line;
-            int lineCount = 0;
-            
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
-                
-                try {
-                    int denomination = Integer.parseInt(line);
-                    if (denomination < 0) {
-                        System.out.println("Error: Card denominations must be non-negative. Found: " + denomination);
-                        return false;
-                    }
-                    pack.add(new Card(denomination));
-                    lineCount++;
-                } catch (NumberFormatException e) {
-                    System.out.println("Error: Invalid number format in pack file: " + line);
-                    return false;
-                }
-            }
-            
-            //check if pack has 8n cards
-            int expectedCards = 8 * numPlayers;
-            if (lineCount != expectedCards) {
-                System.out.println("Error: Pack must contain exactly " + expectedCards + 
-                                 " cards for " + numPlayers + " players. Found: " + lineCount + " cards.");
-                return false;
-            }
-            
-            return true;
-            
-        } catch (IOException e) {
-            System.out.println("Error reading pack file: " + e.getMessage());
-            return false;
-        }
-    }
-    
-    private int getValidPlayerCount(Scanner scanner) {
-        while (true) {
-            System.out.print("Please enter the number of players: ");
-            try {
-                String input = scanner.nextLine().trim();
-                int players = Integer.parseInt(input);
-                if (players > 0) {
-                    return players;
-                } else {
-                    System.out.println("Number of players must be positive. Please try again.");
-                }
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Please enter a positive integer.");
-            }
-        }
-    }
-
-    private String getValidPackFile(Scanner scanner) {
-        while (true) {
-            System.out.print("Please enter location of pack to load: ");
-            String filename = scanner.nextLine().trim();
-            
-            if (readAndValidatePack(filename)) {
-                System.out.println("Pack loaded successfully!");
-                return filename;
-            } else {
-                System.out.println("Invalid pack file. Please try again.");
-            }
-        }
-    }
-
-    private void distributeCardsToPlayers() {
-        int cardIndex = 0;
-        
-        //give 4 each in round robin
-        for (int round = 0; round < 4; round++) {
-            for (int playerIndex = 0; playerIndex < numPlayers; playerIndex++) {
-                if (cardIndex < pack.size()) {
-                    players.get(playerIndex).addCardToHand(pack.get(cardIndex++));
-                }
-            }
-        }
-    }
-
-    private void fillDecks() {
-        int cardIndex = 4 * numPlayers; // Start after player cards
-        
-        //remaining cards to the decks by round robin
-        while (cardIndex < pack.size()) {
-            for (int deckIndex = 0; deckIndex < numPlayers && cardIndex < pack.size(); deckIndex++) {
-                decks.get(deckIndex).addCard(pack.get(cardIndex++));
-            }
-        }
-    }
-
-    private void createPlayersAndDecks() {
-        for (int i = 1; i <= numPlayers; i++) {
-            decks.add(new CardDeck(i));
-        }
-        
-        // make players via ring topology
-        for (int i = 1; i <= numPlayers; i++) {
-            CardDeck drawDeck = decks.get(i - 1);
-            CardDeck discardDeck = decks.get(i % numPlayers); //wrapping structure
-            
-            Player player = new Player(i, drawDeck, discardDeck, winningPlayer);
-            players.add(player);
-        }
-    }
-
-    private void startGame() {
-        System.out.println("Game starting with " + numPlayers + " players...");
-        
-        for (Player player : players) {
-            player.start();
-        }
-    }
-
-    private void waitForGameEnd() {
-        try {
-            //wait for other threads to complete
-            for (Player player : players) {
-                player.join();
-            }
-            
-            writeDeckOutputFiles();
-            
-            System.out.println("Game completed successfully!");
-            
-        } catch (InterruptedException e) {
-            System.err.println("Game interrupted: " + e.getMessage());
-            Thread.currentThread().interrupt();
-        }
-    }
-
-    private void writeDeckOutputFiles() {
-        for (int i = 0; i < decks.size(); i++) {
-            CardDeck deck = decks.get(i);
-            String filename = "deck" + (i + 1) + "_output.txt";
-            deck.writeToFile(filename);
-        }
-    }
-
-    public static void main(String[] args) {
-        CardGame game = new CardGame();
-        Scanner scanner = new Scanner(System.in);
-        
-        try {
-            game.numPlayers = game.getValidPlayerCount(scanner);
-            game.getValidPackFile(scanner);
-
-            game.createPlayersAndDecks();
-            game.distributeCardsToPlayers();
-            game.fillDecks();
-            
-            game.startGame();
-            game.waitForGameEnd();
-            
-        } catch (Exception e) {
-            System.err.println("An error occurred during the game: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            scanner.close();
-        }
-    }
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CardGame implements AutoCloseable {
+    static final int ABORTED = -1; // winningPlayer value when the watchdog ends the game
+    private static final int SEATS_PER_PHASER = 1024; // a phaser takes at most 65535 parties
+
+    private int numPlayers;
+    private SharedPack pack;   // held from loading until the game ends, see PackRegistry
+    private List<Player> players;
+    private List<CardDeck> decks;
+    private AtomicInteger winningPlayer;
+    private final TurnGate turnGate;
+    private GameOptions options;
+    private ScheduledExecutorService checkpointer;
+    private GameWatchdog watchdog;
+    private volatile String abortReason;
+    private OutputFilePool outputPool;
+    private DeckArena deckArena; // only set for off heap decks
+    private final GameEventPublisher events;
+    private GameStatsServer statsServer;
+    private ResultCache cache;
+    private String cacheKey; // set when this game's result should be stored
+    private int[][] layout;  // options.topology for layoutPlayers players, see DeckTopology.layout
+    private int layoutPlayers;
+    private TurnLatency latency; // only for --run-summary
+
+    // reused games only: everything below grows to the biggest game so far and is kept between games
+    private boolean reusable;
+    private PackReader packReader;
+    private List<Player> playerPool;
+    private List<RingCardDeck> deckPool;
+    private Phaser rounds;          // game start and game end barriers for the seat threads
+
+    public CardGame() {
+        this(new GameOptions());
+    }
+
+    public CardGame(GameOptions options) {
+        this.players = new ArrayList<>();
+        this.decks = new ArrayList<>();
+        this.winningPlayer = new AtomicInteger(0); // 0 means no winner yet
+        this.turnGate = new TurnGate();
+        this.options = options;
+        this.outputPool = options.maxOpenFiles != OutputFilePool.getDefault().getCapacity() || options.gzipBlockKb > 0
+                ? new OutputFilePool(options.maxOpenFiles, options.gzipBlockKb * 1024) : OutputFilePool.getDefault();
+        this.events = GameEventPublisher.forPolicy(options.eventPolicy, options.eventBufferSize);
+        if (options.cacheDir != null) {
+            this.cache = new ResultCache(Paths.get(options.cacheDir), options.cacheSizeMb * 1024 * 1024);
+        }
+        if (options.runSummary) {
+            this.latency = new TurnLatency();
+        }
+    }
+
+    // subscribe before deal() to see the DEAL events, the stream completes once every player has exited
+    // (for reused games it only completes on close(), each game ends with the players EXIT events)
+    public GameEventPublisher getEventPublisher() {
+        return events;
+    }
+
+    // games loading the same file at the same time share one parsed copy, only the size check is per game
+    private boolean readAndValidatePack(String filename) {
+        releasePack();
+        PackRegistry registry = options.mappedPacks ? PackRegistry.getMapped() : PackRegistry.getDefault();
+        SharedPack shared = registry.acquire(filename);
+        if (shared == null) {
+            return false;
+        }
+        if (!PackReader.checkSize(shared.size(), numPlayers) || !checkWinnable(shared.isWinnable())) {
+            shared.release();
+            return false;
+        }
+        pack = shared;
+        return true;
+    }
+
+    private void releasePack() {
+        if (pack != null) {
+            pack.release();
+            pack = null;
+        }
+    }
+
+    // shared with DistributedCardGame so every node validates the pack the same way
+    static boolean readAndValidatePack(String filename, int numPlayers, List<Card> pack) {
+        PackReader reader = new PackReader();
+        if (!reader.read(filename, numPlayers)) {
+            return false;
+        }
+        addCards(reader, pack);
+        return true;
+    }
+
+    private static void addCards(PackReader reader, List<Card> pack) {
+        for (int i = 0; i < reader.size(); i++) {
+            pack.add(Card.of(reader.get(i)));
+        }
+    }
+    
+    private int getValidPlayerCount(Scanner scanner) {
+        while (true) {
+            System.out.print("Please enter the number of players: ");
+            try {
+                String input = scanner.nextLine().trim();
+                int players = Integer.parseInt(input);
+                if (players > 0) {
+                    return players;
+                } else {
+                    System.out.println("Number of players must be positive. Please try again.");
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter a positive integer.");
+            }
+        }
+    }
+
+    private String getValidPackFile(Scanner scanner) {
+        while (true) {
+            System.out.print("Please enter location of pack to load: ");
+            String filename = scanner.nextLine().trim();
+            
+            if (replayFromCache(numPlayers, filename)) {
+                return null;
+            }
+            if (readAndValidatePack(filename)) {
+                System.out.println("Pack loaded successfully!");
+                return filename;
+            } else {
+                System.out.println("Invalid pack file. Please try again.");
+            }
+        }
+    }
+
+    // everything besides the pack that changes how a game plays out
+    private String cacheConfig() {
+        return "engine=threads strategy=" + String.join(",", options.discardStrategies)
+             + " maxTurns=" + options.maxTurns + " watchdog=" + options.watchdog
+             + " gzipBlockKb=" + options.gzipBlockKb + " topology=" + options.topology;
+    }
+
+    // answers from the result cache without reading the pack, on a miss the result is stored once the game ends
+    public boolean replayFromCache(int numPlayers, String packFile) {
+        cacheKey = null;
+        if (cache == null) {
+            return false;
+        }
+        for (String strategy : options.discardStrategies) {
+            if (strategy.trim().equals("random")) {
+                return false; // unseeded, a second run wouldnt be the same game
+            }
+        }
+        String key;
+        try {
+            key = ResultCache.key(packFile, numPlayers, cacheConfig());
+        } catch (IOException e) {
+            return false; // reading the pack will report it
+        }
+
+        GameSnapshot result = cache.lookup(key, options.cacheFiles ? Paths.get(".") : null);
+        if (result == null || result.getNumPlayers() != numPlayers) {
+            cacheKey = key;
+            return false;
+        }
+        this.numPlayers = numPlayers;
+        winningPlayer.set(result.getWinningPlayer());
+        System.out.println("player " + result.getWinningPlayer() + " wins");
+        System.out.println("Game completed successfully! (cached result, " + result.getTotalTurns() + " turns)");
+        return true;
+    }
+
+    private void storeInCache(GameSnapshot result) {
+        List<Path> files = new ArrayList<>();
+        if (options.cacheFiles) {
+            for (int i = 1; i <= numPlayers; i++) {
+                files.add(Paths.get(outputPool.nameFor("player" + i + "_output.txt")));
+                files.add(Paths.get(outputPool.nameFor("deck" + i + "_output.txt")));
+            }
+        }
+        try {
+            cache.store(cacheKey, result, files);
+        } catch (IOException e) {
+            System.err.println("Error caching result: " + e.getMessage());
+        }
+    }
+
+    private boolean checkWinnable(PackAnalysis analysis) {
+        return checkWinnable(analysis.isWinnable());
+    }
+
+    private boolean checkWinnable(boolean winnable) {
+        if (!winnable) {
+            System.out.println("Error: No card denomination appears at least 4 times, nobody could ever win with this pack.");
+            return false;
+        }
+        return true;
+    }
+
+    private void distributeCardsToPlayers() {
+        int cardIndex = 0;
+        
+        //give 4 each in round robin
+        for (int round = 0; round < 4; round++) {
+            for (int playerIndex = 0; playerIndex < numPlayers; playerIndex++) {
+                if (cardIndex < packSize()) {
+                    Card card = cardAt(cardIndex++);
+                    players.get(playerIndex).addCardToHand(card);
+                    events.publish(GameEvent.Type.DEAL, playerIndex + 1, 0, card.getDenomination(), 0);
+                }
+            }
+        }
+    }
+
+    private void fillDecks() {
+        int cardIndex = 4 * numPlayers; // Start after player cards
+        
+        //remaining cards to the decks by round robin
+        while (cardIndex < packSize()) {
+            for (int deckIndex = 0; deckIndex < decks.size() && cardIndex < packSize(); deckIndex++) {
+                Card card = cardAt(cardIndex++);
+                decks.get(deckIndex).addCard(card);
+                events.publish(GameEvent.Type.DEAL, 0, deckIndex + 1, card.getDenomination(), 0);
+            }
+        }
+    }
+
+    private int packSize() {
+        return reusable ? packReader.size() : pack.size();
+    }
+
+    private Card cardAt(int index) {
+        return Card.of(reusable ? packReader.get(index) : pack.get(index));
+    }
+
+    private void createPlayersAndDecks() {
+        createPlayersAndDecks(false);
+    }
+
+    // the topology has to fit the player count, and lock free decks need all their slots up front
+    private boolean checkTopology() {
+        int deckCount;
+        try {
+            deckCount = options.topology.deckCount(numPlayers);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+        if (options.concurrentDecks && !reusable
+                && deckCount * ConcurrentCardDeck.slotsFor(numPlayers) > ConcurrentCardDeck.MAX_TOTAL_SLOTS) {
+            System.out.println("Error: " + deckCount + " lock free decks for " + numPlayers
+                             + " players need too much memory, use a topology with fewer decks");
+            return false;
+        }
+        return true;
+    }
+
+    // {draw deck, discard deck} by seat, worked out again only when the player count changes
+    private int[][] layout() {
+        if (layout == null || layoutPlayers != numPlayers) {
+            layout = options.topology.layout(numPlayers);
+            layoutPlayers = numPlayers;
+        }
+        return layout;
+    }
+
+    private CardDeck newDeck(int number) {
+        if (options.concurrentDecks) {
+            return new ConcurrentCardDeck(number, (int) ConcurrentCardDeck.slotsFor(numPlayers));
+        }
+        return deckArena != null ? new OffHeapCardDeck(number, deckArena) : new CardDeck(number);
+    }
+
+    private void createPlayersAndDecks(boolean resumed) {
+        if (options.offHeapDecks && !options.concurrentDecks) {
+            deckArena = new DeckArena();
+        }
+        int deckCount = options.topology.deckCount(numPlayers);
+        for (int i = 1; i <= deckCount; i++) {
+            decks.add(newDeck(i));
+        }
+        
+        // make players via the topology, ring by default
+        int[][] seats = layout();
+        for (int i = 1; i <= numPlayers; i++) {
+            CardDeck drawDeck = decks.get(seats[0][i - 1]);
+            CardDeck discardDeck = decks.get(seats[1][i - 1]);
+            
+            Player player = new Player(i, drawDeck, discardDeck, winningPlayer, resumed);
+            player.setTurnGate(turnGate);
+            player.setDiscardStrategy(options.discardStrategyFor(i));
+            player.setBackoff(options.backoff.copy());
+            player.setOutputPool(outputPool);
+            player.setEventPublisher(events);
+            player.setTurnLatency(latency);
+            players.add(player);
+        }
+    }
+
+    // reused games: takes the first numPlayers players and decks from the pools, growing them (and
+    // starting a seat thread per new player) only when this game is bigger than any before it
+    private void rearmPlayersAndDecks() {
+        winningPlayer.set(0);
+        abortReason = null;
+        int deckCount = options.topology.deckCount(numPlayers);
+        while (deckPool.size() < deckCount) {
+            deckPool.add(new RingCardDeck(deckPool.size() + 1));
+        }
+        List<Thread> newSeats = new ArrayList<>();
+        Phaser group = null;
+        while (playerPool.size() < numPlayers) {
+            if (group == null || group.getRegisteredParties() >= SEATS_PER_PHASER) {
+                group = new Phaser(rounds);
+            }
+            int number = playerPool.size() + 1;
+            Player player = new Player(number, deckPool.get(0), deckPool.get(0), winningPlayer);
+            player.setTurnGate(turnGate);
+            player.setDiscardStrategy(options.discardStrategyFor(number));
+            player.setBackoff(options.backoff.copy());
+            player.setOutputPool(outputPool);
+            player.setEventPublisher(events);
+            player.setTurnLatency(latency);
+            playerPool.add(player);
+            newSeats.add(newSeat(player, group));
+        }
+        // registering on a child phaser whose parties have all arrived waits for the next phase,
+        // so new seats get their own children and only start once every one is registered
+        for (Thread seat : newSeats) {
+            seat.start();
+        }
+
+        players.clear();
+        decks.clear();
+        for (int i = 0; i < deckCount; i++) {
+            RingCardDeck deck = deckPool.get(i);
+            deck.clear();
+            decks.add(deck);
+        }
+        // make players via the topology, ring by default
+        int[][] seats = layout();
+        for (int i = 0; i < numPlayers; i++) {
+            Player player = playerPool.get(i);
+            player.rearm(decks.get(seats[0][i]), decks.get(seats[1][i]));
+            if (player.getDiscardStrategy() instanceof RandomDiscardStrategy) {
+                // seeded seats replay the same sequence every game, the other strategies hold no state
+                player.setDiscardStrategy(options.discardStrategyFor(i + 1));
+            }
+            players.add(player);
+        }
+    }
+
+    private Thread newSeat(Player player, Phaser group) {
+        group.register();
+        Thread seat = new Thread(() -> runSeat(player, group), "seat-" + player.getPlayerNumber());
+        seat.setDaemon(true);
+        return seat;
+    }
+
+    // a seat thread plays its player in every game it has a place in, until close()
+    private void runSeat(Player player, Phaser group) {
+        while (group.arriveAndAwaitAdvance() >= 0) {
+            if (player.getPlayerNumber() <= numPlayers) {
+                try {
+                    player.run();
+                } catch (RuntimeException e) {
+                    // still arrive below or the game would never end
+                    System.err.println("Player " + player.getPlayerNumber() + " failed: " + e);
+                }
+            }
+            if (group.arriveAndAwaitAdvance() < 0) {
+                break;
+            }
+        }
+    }
+
+    // players are held between turns only while the arrays are copied, the disk write happens after
+    public synchronized GameSnapshot captureSnapshot() {
+        int[] turnCounts = new int[numPlayers];
+        int[][] hands = new int[numPlayers][];
+        int[][] deckContents = new int[decks.size()][];
+        int winner;
+
+        turnGate.quiesce(players);
+        try {
+            winner = winningPlayer.get();
+            for (int i = 0; i < numPlayers; i++) {
+                Player player = players.get(i);
+                turnCounts[i] = player.getTurnCount();
+                hands[i] = player.getHandDenominations();
+            }
+            for (int i = 0; i < deckContents.length; i++) {
+                deckContents[i] = decks.get(i).getDenominations();
+            }
+        } finally {
+            turnGate.release();
+        }
+
+        return new GameSnapshot(numPlayers, winner, turnCounts, hands, deckContents);
+    }
+
+    public void saveSnapshot(String filename) {
+        try {
+            captureSnapshot().writeToFile(filename);
+        } catch (IOException e) {
+            System.err.println("Error writing snapshot " + filename + ": " + e.getMessage());
+        }
+    }
+
+    boolean resumeFromSnapshot(String filename) {
+        GameSnapshot snapshot;
+        try {
+            snapshot = GameSnapshot.readFromFile(filename);
+        } catch (IOException e) {
+            System.out.println("Error reading snapshot: " + e.getMessage());
+            return false;
+        }
+
+        if (snapshot.getWinningPlayer() != 0) {
+            System.out.println("Snapshot is from a finished game, player " + snapshot.getWinningPlayer() + " won");
+            return false;
+        }
+        numPlayers = snapshot.getNumPlayers();
+        if (!checkTopology()) {
+            return false;
+        }
+        if (snapshot.getNumDecks() != options.topology.deckCount(numPlayers)) {
+            System.out.println("Error: Snapshot has " + snapshot.getNumDecks() + " decks for "
+                             + snapshot.getNumPlayers() + " players, topology " + options.topology + " needs "
+                             + options.topology.deckCount(numPlayers));
+            return false;
+        }
+
+        // plain ints, a Card each would put the whole pack back on the heap
+        int cards = 0;
+        for (int i = 0; i < snapshot.getNumPlayers(); i++) cards += snapshot.getHand(i).length;
+        for (int i = 0; i < snapshot.getNumDecks(); i++) cards += snapshot.getDeck(i).length;
+        int[] remaining = new int[cards];
+        int next = 0;
+        for (int i = 0; i < snapshot.getNumPlayers(); i++) {
+            for (int denomination : snapshot.getHand(i)) remaining[next++] = denomination;
+        }
+        for (int i = 0; i < snapshot.getNumDecks(); i++) {
+            for (int denomination : snapshot.getDeck(i)) remaining[next++] = denomination;
+        }
+        if (!checkWinnable(new PackAnalysis(remaining))) {
+            return false;
+        }
+
+        // a game that died after the checkpoint logged turns that will now be played again, each log is
+        // cut back to its initial hand and the 3 lines of every turn the snapshot has. lines still in a
+        // player's buffer when it died (its last turn, flushed after the turn gate, or a gzip block) are lost
+        for (int i = 0; i < numPlayers; i++) {
+            try {
+                outputPool.keepLines("player" + (i + 1) + "_output.txt", 1 + 3L * snapshot.getTurnCount(i));
+            } catch (IOException e) {
+                System.out.println("Error trimming player " + (i + 1) + " output: " + e.getMessage());
+                return false;
+            }
+        }
+
+        createPlayersAndDecks(true);
+
+        for (int i = 0; i < numPlayers; i++) {
+            Player player = players.get(i);
+            for (int denomination : snapshot.getHand(i)) {
+                player.addCardToHand(Card.of(denomination));
+            }
+            player.setTurnCount(snapshot.getTurnCount(i));
+        }
+        for (int i = 0; i < snapshot.getNumDecks(); i++) {
+            for (int denomination : snapshot.getDeck(i)) {
+                decks.get(i).addCard(Card.of(denomination));
+            }
+        }
+
+        System.out.println("Resumed game with " + numPlayers + " players from " + filename);
+        return true;
+    }
+
+    private void startCheckpoints(String filename, long intervalMs) {
+        checkpointer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointer.scheduleWithFixedDelay(() -> saveSnapshot(filename), intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopCheckpoints() {
+        if (checkpointer != null) {
+            checkpointer.shutdownNow();
+            checkpointer = null;
+        }
+    }
+
+    // ends the game with no winner, players write their exit lines and stop
+    public void abort(String reason) {
+        abortReason = reason;
+        winningPlayer.compareAndSet(0, ABORTED);
+    }
+
+    private void startStatsServer(int port) {
+        try {
+            statsServer = new GameStatsServer(this, port);
+            statsServer.start();
+            System.out.println("Live stats at http://127.0.0.1:" + statsServer.getPort() + "/stats");
+        } catch (IOException e) {
+            // the game doesnt need it, carry on without
+            System.err.println("Error starting stats server: " + e.getMessage());
+        }
+    }
+
+    private void stopStatsServer() {
+        if (statsServer != null) {
+            statsServer.stop();
+            statsServer = null;
+        }
+    }
+
+    // live views for GameStatsServer, the lists dont change once the game has started
+    List<Player> getPlayers() {
+        return players;
+    }
+
+    List<CardDeck> getDecks() {
+        return decks;
+    }
+
+    int getWinningPlayer() {
+        return winningPlayer.get();
+    }
+
+    // turn counters are volatile, so this needs no pause and may be a turn or two behind
+    long getTotalTurns() {
+        long total = 0;
+        for (Player player : players) {
+            total += player.getTurnCount();
+        }
+        return total;
+    }
+
+    // snapshot.fingerprint() of a snapshot taken now, hashed with the players held but nothing copied
+    public synchronized long positionFingerprint() {
+        int[] hand = new int[5];
+        turnGate.quiesce(players);
+        try {
+            long hash = GameSnapshot.FINGERPRINT_START;
+            for (int i = 0; i < numPlayers; i++) {
+                hash = GameSnapshot.mix(hash, hand, players.get(i).copyHand(hand));
+            }
+            for (CardDeck deck : decks) {
+                hash = deck.fingerprint(hash);
+            }
+            return hash;
+        } finally {
+            turnGate.release();
+        }
+    }
+
+    private void startWatchdog() {
+        watchdog = new GameWatchdog(this, options.watchdogIntervalMs, options.maxTurns,
+                options.cycleRepeats, options.stallChecks);
+        watchdog.start();
+    }
+
+    private void stopWatchdog() {
+        if (watchdog != null) {
+            watchdog.interrupt();
+            watchdog = null;
+        }
+    }
+
+    private void startGame() {
+        System.out.println("Game starting with " + numPlayers + " players...");
+        
+        if (reusable) {
+            rounds.arriveAndAwaitAdvance(); // lets every seat thread go
+            return;
+        }
+        for (Player player : players) {
+            player.start();
+        }
+    }
+
+    private void waitForGameEnd() {
+        try {
+            //wait for other threads to complete
+            if (reusable) {
+                rounds.arriveAndAwaitAdvance();
+            } else {
+                for (Player player : players) {
+                    player.join();
+                }
+            }
+            stopCheckpoints();
+            stopWatchdog();
+            stopStatsServer();
+            if (!reusable) {
+                events.close();
+            }
+            
+            // the result has to be read off the decks before the arena frees them, the files it
+            // goes into the cache with are only written after
+            GameSnapshot result = cacheKey != null && winningPlayer.get() != ABORTED ? captureSnapshot() : null;
+            writeDeckOutputFiles();
+            if (deckArena != null) {
+                deckArena.close();
+            }
+            releasePack();
+            
+            if (winningPlayer.get() == ABORTED) {
+                System.out.println("Game stopped with no winner: " + abortReason);
+            } else {
+                if (result != null) {
+                    storeInCache(result);
+                }
+                System.out.println("Game completed successfully!");
+            }
+            
+        } catch (InterruptedException e) {
+            System.err.println("Game interrupted: " + e.getMessage());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeDeckOutputFiles() {
+        for (int i = 0; i < decks.size(); i++) {
+            CardDeck deck = decks.get(i);
+            String filename = "deck" + (i + 1) + "_output.txt";
+            deck.writeToFile(filename, outputPool);
+        }
+    }
+
+    // back to back games on one instance: call before the first loadPack, then loadPack, deal, play as
+    // often as needed and close() at the end. players, decks, pack and output buffers are recycled
+    // so a game no bigger than an earlier one allocates next to nothing. decks are always RingCardDecks
+    public void setReusable(boolean reusable) {
+        if (!players.isEmpty()) {
+            throw new IllegalStateException("Reuse has to be chosen before the first deal");
+        }
+        this.reusable = reusable;
+        if (reusable && rounds == null) {
+            packReader = new PackReader();
+            playerPool = new ArrayList<>();
+            deckPool = new ArrayList<>();
+            rounds = new Phaser(1); // the game itself is the one party
+        }
+    }
+
+    public boolean isReusable() {
+        return reusable;
+    }
+
+    // in process entry point: new CardGame(options), subscribe, loadPack, deal, play
+    public boolean loadPack(int numPlayers, String filename) {
+        if (numPlayers <= 0) {
+            System.out.println("Error: Number of players must be positive. Found: " + numPlayers);
+            return false;
+        }
+        this.numPlayers = numPlayers;
+        if (!checkTopology()) {
+            return false;
+        }
+        if (reusable) {
+            return packReader.read(filename, numPlayers) && checkWinnable(packReader.isWinnable());
+        }
+        return readAndValidatePack(filename);
+    }
+
+    public void deal() {
+        if (reusable) {
+            rearmPlayersAndDecks();
+            distributeCardsToPlayers();
+            fillDecks();
+            return;
+        }
+        createPlayersAndDecks();
+        distributeCardsToPlayers();
+        fillDecks();
+    }
+
+    // runs the dealt (or resumed) game to the end, returns the winning player or ABORTED
+    public int play() {
+        if (options.statsPort >= 0) {
+            startStatsServer(options.statsPort);
+        }
+        startGame();
+        if (options.watchdog) {
+            startWatchdog();
+        }
+        if (options.checkpointFile != null) {
+            startCheckpoints(options.checkpointFile, options.checkpointIntervalMs);
+        }
+        waitForGameEnd();
+        return winningPlayer.get();
+    }
+
+    // stops the seat threads of a reused game and completes the event stream, call between games
+    @Override
+    public void close() {
+        if (rounds != null) {
+            rounds.forceTermination();
+        }
+        events.close();
+        releasePack();
+    }
+
+    // one line for ScalingHarness to parse, key=value pairs after "summary"
+    // heap is the peak of every heap pool added up, so it can be a little over the real peak
+    String runSummary(long playNanos) {
+        long turns = 0;
+        for (Player player : players) {
+            turns += player.getTurnCount();
+        }
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+        }
+        double seconds = playNanos / 1e9;
+        return "summary players=" + numPlayers + " winner=" + winningPlayer.get() + " turns=" + turns
+             + " wall_ms=" + playNanos / 1_000_000 + " turns_per_sec=" + (seconds > 0 ? Math.round(turns / seconds) : 0)
+             + " p50_us=" + (latency != null ? latency.percentile(0.5) / 1000.0 : 0)
+             + " p99_us=" + (latency != null ? latency.percentile(0.99) / 1000.0 : 0)
+             + " peak_heap_mb=" + peakHeap / (1024 * 1024)
+             + " peak_threads=" + ManagementFactory.getThreadMXBean().getPeakThreadCount();
+    }
+
+    public static void main(String[] args) {
+        GameOptions options;
+        try {
+            options = GameOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+
+        CardGame game = new CardGame(options);
+        Scanner scanner = new Scanner(System.in);
+        
+        try {
+            if (options.resumeFile != null) {
+                if (!game.resumeFromSnapshot(options.resumeFile)) {
+                    return;
+                }
+            } else {
+                // --players and --pack skip the prompts, a bad pack given that way ends the run
+                game.numPlayers = options.players > 0 ? options.players : game.getValidPlayerCount(scanner);
+                if (!game.checkTopology()) {
+                    return;
+                }
+                if (options.packFile != null) {
+                    if (game.replayFromCache(game.numPlayers, options.packFile)
+                            || !game.readAndValidatePack(options.packFile)) {
+                        return;
+                    }
+                } else if (game.getValidPackFile(scanner) == null) {
+                    return; // answered from the result cache
+                }
+                game.deal();
+            }
+            
+            long start = System.nanoTime();
+            game.play();
+            if (options.runSummary) {
+                System.out.println(game.runSummary(System.nanoTime() - start));
+            }
+            
+        } catch (Exception e) {
+            System.err.println("An error occurred during the game: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            scanner.close();
+        }
+    }
 }
\ No newline at end of file
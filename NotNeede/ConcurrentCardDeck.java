@@ -0,0 +1,131 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// lock free CardDeck for topologies where many players draw from and discard to the same deck
+// a bounded array queue with a sequence number per slot (Vyukov's MPMC queue): the sequence says
+// whether a slot is waiting for a discard or a draw, so drawers only CAS the head and discarders
+// only CAS the tail and nobody ever waits on a lock held by a descheduled thread
+// players always hold at least 4 cards, so 4 * players slots can never fill up
+public class ConcurrentCardDeck extends CardDeck {
+    static final long MAX_TOTAL_SLOTS = 1L << 24; // across every deck of a game, ~200 MB
+
+    private final AtomicReferenceArray<Card> slots;
+    private final AtomicLongArray sequence;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // next draw
+    private final AtomicLong tail = new AtomicLong(); // next discard
+
+    public ConcurrentCardDeck(int deckNumber, int capacity) {
+        super(deckNumber);
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid deck capacity: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequence = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequence.set(i, i);
+        }
+    }
+
+    // slots a deck gets for a game, a power of two at least 4 * players
+    static long slotsFor(int numPlayers) {
+        long capacity = 4L * numPlayers;
+        return capacity == 1 ? 1 : Long.highestOneBit(capacity - 1) << 1;
+    }
+
+    // null when empty, or when the only card is still being put down by a discarder
+    @Override
+    public Card drawCard() {
+        long pos = head.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequence.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    Card card = slots.get(index);
+                    slots.set(index, null);
+                    sequence.set(index, pos + mask + 1); // free for the discard one lap later
+                    return card;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = head.get(); // another drawer got here first
+            }
+        }
+    }
+
+    @Override
+    public void discardCard(Card card) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequence.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.set(index, card);
+                    sequence.set(index, pos + 1); // publishes the card to drawers
+                    return;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // a lap behind there is a drawer that took its card but hasnt freed the slot yet
+                if (pos - head.get() > mask) {
+                    throw new IllegalStateException("Deck " + getDeckNumber() + " is full");
+                }
+                Thread.onSpinWait();
+                pos = tail.get();
+            } else {
+                pos = tail.get(); // another discarder got here first
+            }
+        }
+    }
+
+    @Override
+    public void addCard(Card card) {
+        discardCard(card);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // can be briefly off by the draws and discards in flight
+    @Override
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    // exact only while nobody is drawing or discarding (snapshots quiesce the players first)
+    @Override
+    public int[] getDenominations() {
+        long from = head.get();
+        long to = tail.get();
+        int[] denominations = new int[(int) Math.max(0, Math.min(to - from, mask + 1))];
+        int count = 0;
+        for (long pos = from; pos < from + denominations.length; pos++) {
+            Card card = slots.get((int) (pos & mask));
+            if (card != null) {
+                denominations[count++] = card.getDenomination();
+            }
+        }
+        return count == denominations.length ? denominations : Arrays.copyOf(denominations, count);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("deck").append(getDeckNumber()).append(" contents:");
+        for (int denomination : getDenominations()) {
+            sb.append(" ").append(denomination);
+        }
+        return sb.toString();
+    }
+}
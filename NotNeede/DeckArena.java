@@ -0,0 +1,112 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// owns all the off heap memory used by one game's decks
+// close() frees it straight away rather than waiting for the GC to notice the buffers, decks made on
+// the arena are cut off from their buffers first so using one afterwards throws instead of reading freed memory
+public class DeckArena implements AutoCloseable {
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        // jdk.unsupported lets us free direct buffers on demand, fall back to the GC if it isnt there
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final Map<ByteBuffer, Boolean> live;
+    private final List<OffHeapCardDeck> decks;
+    private long allocatedBytes;
+    private boolean closed;
+
+    public DeckArena() {
+        this.live = new IdentityHashMap<>();
+        this.decks = new ArrayList<>();
+    }
+
+    synchronized void register(OffHeapCardDeck deck) {
+        if (closed) {
+            throw new IllegalStateException("Deck arena already closed");
+        }
+        decks.add(deck);
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    public synchronized ByteBuffer allocate(int bytes) {
+        if (closed) {
+            throw new IllegalStateException("Deck arena already closed");
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        live.put(buffer, Boolean.TRUE);
+        allocatedBytes += bytes;
+        return buffer;
+    }
+
+    public synchronized void free(ByteBuffer buffer) {
+        if (live.remove(buffer) != null) {
+            allocatedBytes -= buffer.capacity();
+            release(buffer);
+        }
+    }
+
+    public synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public void close() {
+        List<OffHeapCardDeck> owners;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true; // growing a deck fails from here on
+            owners = new ArrayList<>(decks);
+            decks.clear();
+        }
+        // outside the arena lock, a deck growing holds its own lock while it asks us for a buffer
+        for (OffHeapCardDeck deck : owners) {
+            deck.detach();
+        }
+        synchronized (this) {
+            for (ByteBuffer buffer : live.keySet()) {
+                release(buffer);
+            }
+            live.clear();
+            allocatedBytes = 0;
+        }
+    }
+
+    // also used by LogAnalyzer to unmap files without waiting for a GC
+    static void release(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // leave it to the GC
+        }
+    }
+}
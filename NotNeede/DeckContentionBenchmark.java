@@ -0,0 +1,77 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+// many threads drawing from and discarding to one deck, the central topology without the game around it
+// usage: java DeckContentionBenchmark [threads] [seconds] [cards]
+// runs 1, 2, 4 .. threads for the locked CardDeck, RingCardDeck and the lock free ConcurrentCardDeck
+public class DeckContentionBenchmark {
+
+    private interface DeckFactory {
+        CardDeck create(int cards);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+        int cards = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+        String[] names = {"CardDeck", "RingCardDeck", "ConcurrentCardDeck"};
+        DeckFactory[] factories = {n -> new CardDeck(1), n -> new RingCardDeck(1), n -> new ConcurrentCardDeck(1, n)};
+
+        System.out.println(cards + " cards, " + Runtime.getRuntime().availableProcessors() + " cpus, draw+discard per second");
+        System.out.printf("%8s", "threads");
+        for (String name : names) {
+            System.out.printf("%20s", name);
+        }
+        System.out.println();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            System.out.printf("%8d", threads);
+            for (DeckFactory factory : factories) {
+                run(factory, threads, cards, seconds / 4); // warm up
+                System.out.printf("%20.0f", run(factory, threads, cards, seconds));
+            }
+            System.out.println();
+        }
+    }
+
+    // turns per second over every thread
+    private static double run(DeckFactory factory, int threads, int cards, double seconds) throws InterruptedException {
+        CardDeck deck = factory.create(cards);
+        for (int i = 0; i < cards; i++) {
+            deck.addCard(Card.of(i));
+        }
+        LongAdder turns = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long nanos = (long) (seconds * 1e9);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long end = System.nanoTime() + nanos;
+                long done = 0;
+                while ((done & 255) != 0 || System.nanoTime() < end) {
+                    Card card = deck.drawCard();
+                    if (card != null) {
+                        deck.discardCard(card);
+                        done++;
+                    }
+                }
+                turns.add(done);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return turns.sum() / ((System.nanoTime() - begin) / 1e9);
+    }
+}
@@ -0,0 +1,49 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+// other end of a RemoteCardDeck, feeds incoming batches into the local deck until the sender closes
+public class DeckLinkReceiver extends Thread {
+    private final SocketChannel channel;
+    private final CardDeck deck;
+
+    public DeckLinkReceiver(SocketChannel channel, CardDeck deck) {
+        super("deck" + deck.getDeckNumber() + "-receiver");
+        setDaemon(true);
+        this.channel = channel;
+        this.deck = deck;
+    }
+
+    @Override
+    public void run() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4 + 4 * RemoteCardDeck.MAX_BATCH);
+        int pending = -1; // cards left in the current batch, -1 while waiting for a header
+
+        try {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (true) {
+                    if (pending < 0) {
+                        if (buffer.remaining() < 4) break;
+                        pending = buffer.getInt();
+                    }
+                    while (pending > 0 && buffer.remaining() >= 4) {
+                        deck.discardCard(Card.of(buffer.getInt()));
+                        pending--;
+                    }
+                    if (pending > 0) break;
+                    pending = -1;
+                }
+                buffer.compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Error receiving into deck " + deck.getDeckNumber() + ": " + e.getMessage());
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // already finished with it
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// fills decks with a whole pack worth of cards and reports heap against off heap use
+// usage: java -Xmx8g DeckMemoryBenchmark <cards> <heap|offheap|game> [decks]
+// game goes the way CardGame --mapped-packs --off-heap-decks does: the pack is written to a file,
+// loaded through a mapped PackRegistry and dealt from there, so the pack is counted too
+// e.g. 100000000 game for the 100M card check
+public class DeckMemoryBenchmark {
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java DeckMemoryBenchmark <cards> <heap|offheap|game> [decks]");
+            return;
+        }
+        long cards = Long.parseLong(args[0]);
+        boolean game = args[1].equals("game");
+        boolean offHeap = game || args[1].equals("offheap");
+        int numDecks = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        File packFile = null;
+        if (game) {
+            packFile = File.createTempFile("deck_memory_pack", ".txt");
+            packFile.deleteOnExit();
+            new PackGenerator((int) (cards / 8), PackGenerator.Distribution.UNIFORM, 1).writeToFile(packFile.getPath());
+        }
+
+        long heapBefore = usedHeap();
+        DeckArena arena = offHeap ? new DeckArena() : null;
+        List<CardDeck> decks = new ArrayList<>(numDecks);
+        for (int i = 1; i <= numDecks; i++) {
+            decks.add(offHeap ? new OffHeapCardDeck(i, arena) : new CardDeck(i));
+        }
+
+        long start = System.nanoTime();
+        SharedPack pack = null;
+        if (game) {
+            pack = new PackRegistry(true).acquire(packFile.getPath());
+            if (pack == null) {
+                return;
+            }
+            for (int i = 0; i < pack.size(); i++) {
+                decks.get(i % numDecks).addCard(Card.of(pack.get(i)));
+            }
+        } else {
+            // denominations the way a pack for cards/8 players would have them
+            int maxDenomination = (int) Math.max(1, cards / 8);
+            SplittableRandom random = new SplittableRandom(1);
+            for (long i = 0; i < cards; i++) {
+                decks.get((int) (i % numDecks)).addCard(Card.of(1 + random.nextInt(maxDenomination)));
+            }
+        }
+        long fillMs = (System.nanoTime() - start) / 1_000_000;
+
+        long heapAfter = usedHeap();
+        System.out.println((game ? "mapped pack and off heap" : offHeap ? "off heap" : "heap") + " decks, "
+                         + cards + " cards in " + numDecks + " decks");
+        System.out.println((game ? "load and deal:  " : "fill time:      ") + fillMs + " ms");
+        System.out.println("heap retained:  " + (heapAfter - heapBefore) / (1024 * 1024) + " MB");
+        System.out.println("direct memory:  " + bufferPool("direct") / (1024 * 1024) + " MB");
+        if (pack != null) {
+            System.out.println("mapped pack:    " + bufferPool("mapped") / (1024 * 1024) + " MB");
+        }
+
+        long size = 0;
+        for (CardDeck deck : decks) {
+            size += deck.size();
+        }
+        System.out.println("cards in decks: " + size);
+        if (arena != null) {
+            arena.close();
+            System.out.println("after close:    " + bufferPool("direct") / (1024 * 1024) + " MB direct");
+        }
+        if (pack != null) {
+            pack.release();
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long bufferPool(String name) {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals(name)) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return -1;
+    }
+}
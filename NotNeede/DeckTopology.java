@@ -0,0 +1,140 @@
+import java.util.SplittableRandom;
+
+// which deck each seat draws from and which it discards to
+//   ring            the coursework game, player i draws from deck i and discards to deck i+1
+//   central         one deck that every player draws from and discards to
+//   neighbours:k    seats in groups of k share a draw deck and discard into the next group's deck
+//   random:d[:seed] d decks (default or 0 one per player), draw and discard decks picked at random,
+//                   every deck gets at least one drawer and one discarder so none just fills up
+// every topology but ring has decks with several drawers and discarders, see ConcurrentCardDeck
+public final class DeckTopology {
+    public static final DeckTopology RING = new DeckTopology("ring", 1, 0);
+
+    private final String kind;
+    private final int size;   // k for neighbours, decks for random (0 = one per player)
+    private final long seed;
+
+    private DeckTopology(String kind, int size, long seed) {
+        this.kind = kind;
+        this.size = size;
+        this.seed = seed;
+    }
+
+    public static DeckTopology parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        switch (parts[0]) {
+            case "ring":
+                expectParts(parts, 1, 1, spec);
+                return RING;
+            case "central":
+                expectParts(parts, 1, 1, spec);
+                return new DeckTopology("central", 0, 0);
+            case "neighbours":
+                expectParts(parts, 2, 2, spec);
+                return new DeckTopology("neighbours", positive(parts[1], spec), 0);
+            case "random":
+                expectParts(parts, 1, 3, spec);
+                // 0 is what toString gives for one per player, so it has to read back
+                int decks = parts.length > 1 ? (parts[1].equals("0") ? 0 : positive(parts[1], spec)) : 0;
+                long seed = 1;
+                if (parts.length > 2) {
+                    try {
+                        seed = Long.parseLong(parts[2]);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid topology seed: " + spec);
+                    }
+                }
+                return new DeckTopology("random", decks, seed);
+            default:
+                throw new IllegalArgumentException("Unknown topology: " + spec);
+        }
+    }
+
+    private static void expectParts(String[] parts, int min, int max, String spec) {
+        if (parts.length < min || parts.length > max) {
+            throw new IllegalArgumentException("Invalid topology: " + spec);
+        }
+    }
+
+    private static int positive(String value, String spec) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException("Invalid topology: " + spec);
+    }
+
+    public boolean isRing() {
+        return this == RING;
+    }
+
+    // throws IllegalArgumentException when this topology cant seat that many players
+    public int deckCount(int numPlayers) {
+        switch (kind) {
+            case "ring":
+                return numPlayers;
+            case "central":
+                return 1;
+            case "neighbours":
+                return (numPlayers + size - 1) / size;
+            default:
+                int decks = size == 0 ? numPlayers : size;
+                if (decks > numPlayers) {
+                    throw new IllegalArgumentException("Topology " + this + " needs at least " + decks + " players");
+                }
+                return decks;
+        }
+    }
+
+    // {draw deck per seat, discard deck per seat}, 0 based on both sides
+    public int[][] layout(int numPlayers) {
+        int decks = deckCount(numPlayers);
+        int[] draw = new int[numPlayers];
+        int[] discard = new int[numPlayers];
+        if (kind.equals("random")) {
+            SplittableRandom random = new SplittableRandom(seed);
+            assignCovering(draw, decks, random);
+            assignCovering(discard, decks, random);
+            return new int[][]{draw, discard};
+        }
+        int group = kind.equals("ring") ? 1 : kind.equals("central") ? numPlayers : size;
+        for (int seat = 0; seat < numPlayers; seat++) {
+            draw[seat] = seat / group;
+            discard[seat] = (seat / group + 1) % decks;
+        }
+        return new int[][]{draw, discard};
+    }
+
+    // shuffled seats, the first `decks` of them take one deck each and the rest pick at random
+    private static void assignCovering(int[] decksBySeat, int decks, SplittableRandom random) {
+        int[] seats = new int[decksBySeat.length];
+        for (int i = 0; i < seats.length; i++) {
+            seats[i] = i;
+        }
+        for (int i = seats.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = seats[i];
+            seats[i] = seats[j];
+            seats[j] = swap;
+        }
+        for (int i = 0; i < seats.length; i++) {
+            decksBySeat[seats[i]] = i < decks ? i : random.nextInt(decks);
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case "neighbours":
+                return "neighbours:" + size;
+            case "random":
+                return "random:" + size + ":" + seed;
+            default:
+                return kind;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+// picks which card a player throws away each turn
+// hand is a primitive view owned by the player, implementations must not keep it or allocate
+public interface DiscardStrategy {
+
+    int selectCardToDiscard(int[] hand, int handSize, int playerNumber);
+
+    // "first", "frequency", "random" or "random:<seed>", seat keeps random seats apart
+    static DiscardStrategy forName(String name, int seat) {
+        String trimmed = name.trim();
+        if (trimmed.equals("first")) {
+            return new FirstNonPreferredStrategy();
+        }
+        if (trimmed.equals("frequency")) {
+            return new FrequencyDiscardStrategy();
+        }
+        if (trimmed.equals("random")) {
+            return new RandomDiscardStrategy(System.nanoTime() + seat);
+        }
+        if (trimmed.startsWith("random:")) {
+            try {
+                long seed = Long.parseLong(trimmed.substring("random:".length()));
+                return new RandomDiscardStrategy(seed * 31 + seat);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid random strategy seed: " + trimmed);
+            }
+        }
+        throw new IllegalArgumentException("Unknown discard strategy: " + trimmed);
+    }
+}
@@ -0,0 +1,340 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// runs one ring game split over several JVMs on this host
+// each node owns a contiguous range of players and their draw decks, the last player of a range
+// discards into a RemoteCardDeck that feeds the first deck of the next node
+// the coordinator wires the ring together and picks the winner: players on different nodes can
+// both get four of a kind, so a node only passes on claims and a player only declares victory once
+// the coordinator has said it was first
+//
+// usage: java DistributedCardGame launch <nodes> <players> <pack file>
+//        java DistributedCardGame coordinator <port> <nodes>
+//        java DistributedCardGame node <coordinator port> <node index> <nodes> <players> <pack file>
+public class DistributedCardGame {
+    static final int HELLO = 1; // node -> coordinator: node index, listen port
+    static final int NEXT = 2;  // coordinator -> node: listen port of the next node in the ring
+    static final int WIN = 3;   // node -> coordinator: a player claims the win, coordinator -> node: the winner
+    static final int DONE = 4;  // node -> coordinator: output files written
+
+    // first player of a node, players are 1 based and ranges are as even as possible
+    static int firstPlayer(int nodeIndex, int nodes, int numPlayers) {
+        return (int) ((long) nodeIndex * numPlayers / nodes) + 1;
+    }
+
+    static int lastPlayer(int nodeIndex, int nodes, int numPlayers) {
+        return firstPlayer(nodeIndex + 1, nodes, numPlayers) - 1;
+    }
+
+    public static class Coordinator {
+        private final ServerSocket server;
+        private final int nodes;
+        private final AtomicInteger winningPlayer = new AtomicInteger(0);
+
+        public Coordinator(int port, int nodes) throws IOException {
+            this.server = new ServerSocket(port, nodes, InetAddress.getLoopbackAddress());
+            this.nodes = nodes;
+        }
+
+        public int getPort() {
+            return server.getLocalPort();
+        }
+
+        // returns the winning player once every node has finished
+        public int run() throws IOException, InterruptedException {
+            Socket[] sockets = new Socket[nodes];
+            DataOutputStream[] outs = new DataOutputStream[nodes];
+            DataInputStream[] ins = new DataInputStream[nodes];
+            int[] listenPorts = new int[nodes];
+
+            try {
+                for (int i = 0; i < nodes; i++) {
+                    Socket socket = server.accept();
+                    DataInputStream in = new DataInputStream(socket.getInputStream());
+                    expect(in, HELLO);
+                    int nodeIndex = in.readInt();
+                    if (nodeIndex < 0 || nodeIndex >= nodes || sockets[nodeIndex] != null) {
+                        throw new IOException("Bad node index " + nodeIndex);
+                    }
+                    sockets[nodeIndex] = socket;
+                    ins[nodeIndex] = in;
+                    outs[nodeIndex] = new DataOutputStream(socket.getOutputStream());
+                    listenPorts[nodeIndex] = in.readInt();
+                }
+
+                for (int i = 0; i < nodes; i++) {
+                    outs[i].writeInt(NEXT);
+                    outs[i].writeInt(listenPorts[(i + 1) % nodes]);
+                    outs[i].flush();
+                }
+
+                // one listener per node, the first WIN to arrive is the result
+                List<Thread> listeners = new ArrayList<>();
+                for (int i = 0; i < nodes; i++) {
+                    final int nodeIndex = i;
+                    Thread listener = new Thread(() -> listen(nodeIndex, ins, outs), "node" + i + "-listener");
+                    listener.start();
+                    listeners.add(listener);
+                }
+                for (Thread listener : listeners) {
+                    listener.join();
+                }
+                return winningPlayer.get();
+            } finally {
+                for (Socket socket : sockets) {
+                    if (socket != null) socket.close();
+                }
+                server.close();
+            }
+        }
+
+        private void listen(int nodeIndex, DataInputStream[] ins, DataOutputStream[] outs) {
+            try {
+                while (true) {
+                    int message = ins[nodeIndex].readInt();
+                    if (message == DONE) {
+                        return;
+                    }
+                    if (message != WIN) {
+                        throw new IOException("Unexpected message " + message);
+                    }
+                    int winner = ins[nodeIndex].readInt();
+                    if (winningPlayer.compareAndSet(0, winner)) {
+                        broadcastWinner(winner, outs);
+                    }
+                    // a later claim lost, its node already has the winner from the broadcast
+                }
+            } catch (IOException e) {
+                System.err.println("Lost node " + nodeIndex + ": " + e.getMessage());
+            }
+        }
+
+        private void broadcastWinner(int winner, DataOutputStream[] outs) throws IOException {
+            for (DataOutputStream out : outs) {
+                synchronized (out) {
+                    out.writeInt(WIN);
+                    out.writeInt(winner);
+                    out.flush();
+                }
+            }
+        }
+    }
+
+    public static class Node {
+        private final int coordinatorPort;
+        private final int nodeIndex;
+        private final int nodes;
+        private final int numPlayers;
+        private final String packFile;
+        private final AtomicInteger winningPlayer = new AtomicInteger(0);
+
+        public Node(int coordinatorPort, int nodeIndex, int nodes, int numPlayers, String packFile) {
+            if (nodes <= 0 || nodes > numPlayers) {
+                throw new IllegalArgumentException("Need between 1 and " + numPlayers + " nodes");
+            }
+            if (nodeIndex < 0 || nodeIndex >= nodes) {
+                throw new IllegalArgumentException("Node index must be between 0 and " + (nodes - 1));
+            }
+            this.coordinatorPort = coordinatorPort;
+            this.nodeIndex = nodeIndex;
+            this.nodes = nodes;
+            this.numPlayers = numPlayers;
+            this.packFile = packFile;
+        }
+
+        public boolean run() throws IOException, InterruptedException {
+            List<Card> pack = new ArrayList<>();
+            if (!CardGame.readAndValidatePack(packFile, numPlayers, pack)) {
+                return false;
+            }
+
+            int first = firstPlayer(nodeIndex, nodes, numPlayers);
+            int last = lastPlayer(nodeIndex, nodes, numPlayers);
+
+            try (ServerSocketChannel inbound = ServerSocketChannel.open();
+                 Socket control = new Socket(InetAddress.getLoopbackAddress(), coordinatorPort)) {
+                inbound.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+                DataOutputStream controlOut = new DataOutputStream(control.getOutputStream());
+                DataInputStream controlIn = new DataInputStream(control.getInputStream());
+                controlOut.writeInt(HELLO);
+                controlOut.writeInt(nodeIndex);
+                controlOut.writeInt(((InetSocketAddress) inbound.getLocalAddress()).getPort());
+                controlOut.flush();
+                expect(controlIn, NEXT);
+                int nextPort = controlIn.readInt();
+
+                // every node is listening before NEXT goes out, so connect first then accept
+                SocketChannel toNext = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), nextPort));
+                toNext.socket().setTcpNoDelay(true);
+                SocketChannel fromPrevious = inbound.accept();
+
+                List<CardDeck> decks = new ArrayList<>();
+                for (int i = first; i <= last; i++) {
+                    decks.add(new CardDeck(i));
+                }
+                RemoteCardDeck remoteDeck = new RemoteCardDeck(last % numPlayers + 1, toNext);
+
+                CountDownLatch announced = new CountDownLatch(1);
+                List<Player> players = new ArrayList<>();
+                for (int i = first; i <= last; i++) {
+                    CardDeck drawDeck = decks.get(i - first);
+                    CardDeck discardDeck = i == last ? remoteDeck : decks.get(i - first + 1);
+                    Player player = new Player(i, drawDeck, discardDeck, winningPlayer);
+                    player.setWinArbiter(number -> claim(number, controlOut, announced));
+                    players.add(player);
+                }
+
+                // same round robin deal as CardGame, keeping only this node's share
+                for (int round = 0; round < 4; round++) {
+                    for (int i = first; i <= last; i++) {
+                        players.get(i - first).addCardToHand(pack.get(round * numPlayers + i - 1));
+                    }
+                }
+                for (int round = 4; round < 8; round++) {
+                    for (int i = first; i <= last; i++) {
+                        decks.get(i - first).addCard(pack.get(round * numPlayers + i - 1));
+                    }
+                }
+                pack.clear();
+
+                DeckLinkReceiver receiver = new DeckLinkReceiver(fromPrevious, decks.get(0));
+                receiver.start();
+
+                Thread announcements = new Thread(() -> {
+                    try {
+                        expect(controlIn, WIN);
+                        winningPlayer.compareAndSet(0, controlIn.readInt());
+                    } catch (IOException e) {
+                        System.err.println("Lost coordinator: " + e.getMessage());
+                    } finally {
+                        announced.countDown();
+                    }
+                }, "coordinator-listener");
+                announcements.setDaemon(true);
+                announcements.start();
+
+                for (Player player : players) {
+                    player.start();
+                }
+
+                // players only stop once the coordinator has announced the winner
+                for (Player player : players) {
+                    player.join();
+                }
+
+                // drain the link both ways so deck files include cards that were in flight
+                remoteDeck.close();
+                toNext.close();
+                receiver.join();
+                for (CardDeck deck : decks) {
+                    deck.writeToFile("deck" + deck.getDeckNumber() + "_output.txt");
+                }
+
+                announcements.join(1000);
+                synchronized (controlOut) {
+                    controlOut.writeInt(DONE);
+                    controlOut.flush();
+                }
+                return true;
+            }
+        }
+
+        // sends a player's claim and waits for the coordinator's answer, which may be somebody else
+        // 0 if the coordinator went away, the player then just stops
+        private int claim(int playerNumber, DataOutputStream controlOut, CountDownLatch announced) {
+            try {
+                synchronized (controlOut) {
+                    controlOut.writeInt(WIN);
+                    controlOut.writeInt(playerNumber);
+                    controlOut.flush();
+                }
+                announced.await();
+            } catch (IOException e) {
+                System.err.println("Lost coordinator: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return winningPlayer.get();
+        }
+    }
+
+    private static void expect(DataInputStream in, int message) throws IOException {
+        int received = in.readInt();
+        if (received != message) {
+            throw new IOException("Expected message " + message + " but got " + received);
+        }
+    }
+
+    // coordinator runs in this JVM, every node gets its own JVM with the same classpath
+    private static int launch(int nodes, int numPlayers, String packFile) throws IOException, InterruptedException {
+        Coordinator coordinator = new Coordinator(0, nodes);
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classpath = System.getProperty("java.class.path");
+
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            ProcessBuilder builder = new ProcessBuilder(java, "-cp", classpath, "DistributedCardGame", "node",
+                    String.valueOf(coordinator.getPort()), String.valueOf(i), String.valueOf(nodes),
+                    String.valueOf(numPlayers), packFile);
+            builder.inheritIO();
+            processes.add(builder.start());
+        }
+
+        int winner = coordinator.run();
+        for (Process process : processes) {
+            process.waitFor();
+        }
+        return winner;
+    }
+
+    public static void main(String[] args) {
+        try {
+            if (args.length == 4 && args[0].equals("launch")) {
+                int nodes = Integer.parseInt(args[1]);
+                int players = Integer.parseInt(args[2]);
+                if (nodes <= 0 || nodes > players) {
+                    System.out.println("Error: Need between 1 and " + players + " nodes");
+                    return;
+                }
+                int winner = launch(nodes, players, args[3]);
+                System.out.println("Game completed across " + nodes + " nodes, player " + winner + " won");
+            } else if (args.length == 3 && args[0].equals("coordinator")) {
+                Coordinator coordinator = new Coordinator(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+                System.out.println("Coordinator listening on port " + coordinator.getPort());
+                int winner = coordinator.run();
+                System.out.println("Game completed, player " + winner + " won");
+            } else if (args.length == 6 && args[0].equals("node")) {
+                Node node = new Node(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                        Integer.parseInt(args[3]), Integer.parseInt(args[4]), args[5]);
+                if (!node.run()) {
+                    System.exit(1);
+                }
+            } else {
+                System.out.println("Usage: java DistributedCardGame launch <nodes> <players> <pack file>");
+                System.out.println("       java DistributedCardGame coordinator <port> <nodes>");
+                System.out.println("       java DistributedCardGame node <coordinator port> <node index> <nodes> <players> <pack file>");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Error: Invalid number: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Network error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+// original rule: get rid of the first card that isnt the players own number
+public final class FirstNonPreferredStrategy implements DiscardStrategy {
+
+    @Override
+    public int selectCardToDiscard(int[] hand, int handSize, int playerNumber) {
+        for (int i = 0; i < handSize; i++) {
+            if (hand[i] != playerNumber) {
+                return i;
+            }
+        }
+        // if no rubbish cards can return any
+        return 0;
+    }
+}
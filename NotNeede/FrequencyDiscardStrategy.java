@@ -0,0 +1,25 @@
+// keeps whatever the hand already has most of, own number counts as one extra copy
+// ties go to the oldest card so the hand keeps cycling
+public final class FrequencyDiscardStrategy implements DiscardStrategy {
+
+    @Override
+    public int selectCardToDiscard(int[] hand, int handSize, int playerNumber) {
+        int bestIndex = 0;
+        int bestScore = Integer.MAX_VALUE;
+
+        for (int i = 0; i < handSize; i++) {
+            int value = hand[i];
+            int score = value == playerNumber ? 1 : 0;
+            for (int j = 0; j < handSize; j++) {
+                if (hand[j] == value) {
+                    score++;
+                }
+            }
+            if (score < bestScore) {
+                bestScore = score;
+                bestIndex = i;
+            }
+        }
+        return bestIndex;
+    }
+}
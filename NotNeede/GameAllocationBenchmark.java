@@ -0,0 +1,201 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+// heap allocated per game when every game gets a new CardGame against one reused CardGame
+// usage: java GameAllocationBenchmark <players> <pack file> [games]
+// writes the usual output files into the working directory, game chatter on stdout is thrown away
+//
+// fresh games throw their player threads away and ThreadMXBean forgets a thread once it exits, so
+// the main figure is taken from the heap instead: bytes in use now plus everything the collectors
+// have freed so far. the reused run also sums getThreadAllocatedBytes over the live threads, which
+// is exact there because the seat threads stay alive
+public class GameAllocationBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: java GameAllocationBenchmark <players> <pack file> [games]");
+            return;
+        }
+        int numPlayers = Integer.parseInt(args[0]);
+        String packFile = args[1];
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int warmup = Math.max(1, games / 5);
+
+        PackReader check = new PackReader();
+        if (!check.read(packFile, numPlayers) || !check.isWinnable()) {
+            return; // reader already said why
+        }
+
+        GameOptions options = GameOptions.parse(new String[]{"--no-watchdog"});
+        HeapCounter heap = new HeapCounter();
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long[] fresh;
+        long[] reused;
+        long reusedThreadBytes;
+        try {
+            // class loading, the JIT and pool growth happen here, not in the measured runs
+            playFresh(options, numPlayers, packFile, warmup);
+            CardGame game = new CardGame(options);
+            game.setReusable(true);
+            playReused(game, numPlayers, packFile, warmup);
+
+            fresh = measure(heap, () -> playFresh(options, numPlayers, packFile, games));
+
+            long[] ids = threads.getAllThreadIds();
+            long threadBefore = sum(threads.getThreadAllocatedBytes(ids));
+            reused = measure(heap, () -> playReused(game, numPlayers, packFile, games));
+            reusedThreadBytes = sum(threads.getThreadAllocatedBytes(ids)) - threadBefore;
+            game.close();
+        } finally {
+            System.setOut(stdout);
+        }
+
+        System.out.println(games + " games of " + numPlayers + " players, " + warmup + " warmup games each");
+        report("fresh", fresh, games);
+        report("reused", reused, games);
+        System.out.println("reused by thread: " + reusedThreadBytes / games + " bytes/game (live threads only)");
+    }
+
+    private interface Run {
+        long play(); // returns turns taken
+    }
+
+    // allocated bytes, turns, elapsed nanos, collections
+    private static long[] measure(HeapCounter heap, Run run) {
+        long gcBefore = heap.collections();
+        long before = heap.allocatedBytes();
+        long start = System.nanoTime();
+        long turns = run.play();
+        long elapsed = System.nanoTime() - start;
+        long allocated = heap.allocatedBytes() - before;
+        return new long[]{allocated, turns, elapsed, heap.collections() - gcBefore};
+    }
+
+    private static void report(String label, long[] result, int games) {
+        System.out.println(label + ": " + result[0] / games + " bytes/game, "
+                + (result[1] == 0 ? 0 : result[0] / result[1]) + " bytes/turn, "
+                + result[2] / games / 1_000_000 + " ms/game, " + result[3] + " collections");
+    }
+
+    private static long playFresh(GameOptions options, int numPlayers, String packFile, int games) {
+        long turns = 0;
+        for (int i = 0; i < games; i++) {
+            CardGame game = new CardGame(options);
+            turns += play(game, numPlayers, packFile);
+        }
+        return turns;
+    }
+
+    private static long playReused(CardGame game, int numPlayers, String packFile, int games) {
+        long turns = 0;
+        for (int i = 0; i < games; i++) {
+            turns += play(game, numPlayers, packFile);
+        }
+        return turns;
+    }
+
+    private static long play(CardGame game, int numPlayers, String packFile) {
+        if (!game.loadPack(numPlayers, packFile)) {
+            throw new IllegalStateException("Pack stopped loading: " + packFile);
+        }
+        game.deal();
+        game.play();
+        long turns = 0;
+        for (Player player : game.getPlayers()) {
+            turns += player.getTurnCount();
+        }
+        return turns;
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            if (value > 0) {
+                total += value; // -1 for a thread that has gone
+            }
+        }
+        return total;
+    }
+
+    // allocated = heap in use + freed by every collection so far, collections are counted from the
+    // notifications the collectors send once they finish
+    private static final class HeapCounter {
+        private final AtomicLong freed = new AtomicLong();
+        private final AtomicLong seen = new AtomicLong();
+        private final Set<String> heapPools = new HashSet<>();
+
+        HeapCounter() {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    heapPools.add(pool.getName());
+                }
+            }
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                ((NotificationEmitter) gc).addNotificationListener(this::collected, null, null);
+            }
+            seen.set(collections()); // anything before now was never going to be heard about
+        }
+
+        private void collected(Notification notification, Object handback) {
+            if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long before = heapUsed(info.getGcInfo().getMemoryUsageBeforeGc());
+            long after = heapUsed(info.getGcInfo().getMemoryUsageAfterGc());
+            freed.addAndGet(before - after);
+            seen.incrementAndGet();
+        }
+
+        private long heapUsed(Map<String, MemoryUsage> usage) {
+            long used = 0;
+            for (Map.Entry<String, MemoryUsage> pool : usage.entrySet()) {
+                if (heapPools.contains(pool.getKey())) {
+                    used += pool.getValue().getUsed();
+                }
+            }
+            return used;
+        }
+
+        long collections() {
+            long count = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, gc.getCollectionCount());
+            }
+            return count;
+        }
+
+        long allocatedBytes() {
+            // notifications arrive a little after the collection, dont read half the picture
+            long deadline = System.nanoTime() + 1_000_000_000L;
+            while (seen.get() < collections() && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            long used = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    used += pool.getUsage().getUsed();
+                }
+            }
+            return used + freed.get();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+// one thing that happened in a game, handed to GameEventPublisher subscribers
+// unused fields are 0 (e.g. deck for a card dealt to a hand, player for a card dealt to a deck)
+public final class GameEvent {
+
+    public enum Type {
+        DEAL,    // card dealt to a player's hand or a deck before the game starts
+        DRAW,    // player took card from deck
+        DISCARD, // player put card on deck
+        WIN,     // player won
+        EXIT     // player stopped
+    }
+
+    private final Type type;
+    private final int player;
+    private final int deck;
+    private final int card;
+    private final int turn;
+
+    public GameEvent(Type type, int player, int deck, int card, int turn) {
+        this.type = type;
+        this.player = player;
+        this.deck = deck;
+        this.card = card;
+        this.turn = turn;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getPlayer() {
+        return player;
+    }
+
+    public int getDeck() {
+        return deck;
+    }
+
+    public int getCard() {
+        return card;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    @Override
+    public String toString() {
+        return type + " player=" + player + " deck=" + deck + " card=" + card + " turn=" + turn;
+    }
+}
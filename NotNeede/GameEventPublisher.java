@@ -0,0 +1,152 @@
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// java.util.concurrent.Flow stream of GameEvents for in process consumers
+// each subscriber gets its own bounded buffer, what happens when it fills is the policy:
+//   BLOCK  - the player waits for the subscriber (lossless, slows the game)
+//   DROP   - the event is thrown away and counted
+//   SAMPLE - only every nth draw/discard per player is sent, the rest like DROP
+// with no subscribers publish() returns before building an event so players pay nothing, it checks
+// our own count rather than SubmissionPublisher.hasSubscribers() which takes a lock every call
+public class GameEventPublisher implements Flow.Publisher<GameEvent>, AutoCloseable {
+
+    public enum Policy { BLOCK, DROP, SAMPLE }
+
+    private final SubmissionPublisher<GameEvent> publisher;
+    private final Policy policy;
+    private final int sampleRate;
+    private final LongAdder dropped;
+    private final AtomicInteger subscribers; // up on subscribe, down on cancel, complete or error
+
+    public GameEventPublisher() {
+        this(Flow.defaultBufferSize(), Policy.DROP, 1);
+    }
+
+    public GameEventPublisher(int bufferSize, Policy policy, int sampleRate) {
+        this(new SubmissionPublisher<>(ForkJoinPool.commonPool(), bufferSize), policy, sampleRate);
+    }
+
+    // tests hand in their own SubmissionPublisher to see what reaches it
+    GameEventPublisher(SubmissionPublisher<GameEvent> publisher, Policy policy, int sampleRate) {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("Sample rate must be positive");
+        }
+        this.publisher = publisher;
+        this.policy = policy;
+        this.sampleRate = sampleRate;
+        this.dropped = new LongAdder();
+        this.subscribers = new AtomicInteger();
+    }
+
+    // "block", "drop" or "sample:<n>"
+    public static GameEventPublisher forPolicy(String spec, int bufferSize) {
+        if (spec.equals("block")) {
+            return new GameEventPublisher(bufferSize, Policy.BLOCK, 1);
+        }
+        if (spec.equals("drop")) {
+            return new GameEventPublisher(bufferSize, Policy.DROP, 1);
+        }
+        if (spec.startsWith("sample:")) {
+            try {
+                return new GameEventPublisher(bufferSize, Policy.SAMPLE, Integer.parseInt(spec.substring(7)));
+            } catch (NumberFormatException e) {
+                // fall through to the error below
+            }
+        }
+        throw new IllegalArgumentException("Unknown event policy: " + spec);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super GameEvent> subscriber) {
+        subscribers.incrementAndGet();
+        publisher.subscribe(new CountedSubscriber(subscriber));
+    }
+
+    public boolean hasSubscribers() {
+        return subscribers.get() > 0;
+    }
+
+    public void publish(GameEvent.Type type, int player, int deck, int card, int turn) {
+        if (subscribers.get() == 0) {
+            return;
+        }
+        boolean turnEvent = type == GameEvent.Type.DRAW || type == GameEvent.Type.DISCARD;
+        if (policy == Policy.SAMPLE && turnEvent && turn % sampleRate != 0) {
+            dropped.increment();
+            return;
+        }
+
+        GameEvent event = new GameEvent(type, player, deck, card, turn);
+        if (policy == Policy.BLOCK) {
+            publisher.submit(event);
+        } else {
+            publisher.offer(event, (subscriber, item) -> {
+                dropped.increment();
+                return false;
+            });
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    // subscribers get onComplete once everything already buffered has been delivered
+    @Override
+    public void close() {
+        publisher.close();
+    }
+
+    // passes everything through to the real subscriber and takes it off the count when it goes away
+    private class CountedSubscriber implements Flow.Subscriber<GameEvent> {
+        private final Flow.Subscriber<? super GameEvent> subscriber;
+        private final AtomicBoolean gone = new AtomicBoolean();
+
+        CountedSubscriber(Flow.Subscriber<? super GameEvent> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        private void leave() {
+            if (gone.compareAndSet(false, true)) {
+                subscribers.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    leave();
+                    subscription.cancel();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(GameEvent event) {
+            subscriber.onNext(event);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            leave();
+            subscriber.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            leave();
+            subscriber.onComplete();
+        }
+    }
+}
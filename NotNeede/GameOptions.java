@@ -0,0 +1,160 @@
+// command line flags for CardGame, with no flags the game runs interactively as before
+public class GameOptions {
+    String resumeFile;
+    String checkpointFile;
+    long checkpointIntervalMs = 1000;
+    String[] discardStrategies = {"first"};
+    BackoffPolicy backoff = new BackoffPolicy();
+    boolean watchdog = true;
+    long watchdogIntervalMs = 200;
+    long maxTurns = 0;      // 0 means no budget
+    int cycleRepeats = 0;   // off unless asked for, a layout coming back doesnt prove the game is stuck
+    int stallChecks = 30;
+    int maxOpenFiles = 256;
+    boolean offHeapDecks = false;
+    int eventBufferSize = 1024;
+    String eventPolicy = "drop";
+    int statsPort = -1;     // -1 means no stats server, 0 picks a free port
+    String cacheDir;
+    long cacheSizeMb = 256;
+    boolean cacheFiles = false;
+    int gzipBlockKb = 0;    // 0 means plain text output
+    DeckTopology topology = DeckTopology.RING;
+    boolean concurrentDecks = false;
+    int players = 0;        // 0 means ask, like the pack file below
+    String packFile;
+    boolean runSummary = false;
+    boolean mappedPacks = false; // shared packs kept in a mapped file rather than on the heap
+
+    public static GameOptions parse(String[] args) {
+        GameOptions options = new GameOptions();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--resume":
+                    options.resumeFile = requireValue(args, ++i, arg);
+                    break;
+                case "--checkpoint":
+                    options.checkpointFile = requireValue(args, ++i, arg);
+                    break;
+                case "--checkpoint-interval":
+                    options.checkpointIntervalMs = parsePositive(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--strategy":
+                    options.discardStrategies = requireValue(args, ++i, arg).split(",");
+                    break;
+                case "--backoff":
+                    options.backoff = BackoffPolicy.parse(requireValue(args, ++i, arg));
+                    break;
+                case "--max-turns":
+                    options.maxTurns = parsePositive(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--watchdog-interval":
+                    options.watchdogIntervalMs = parsePositive(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--cycle-repeats":
+                    options.cycleRepeats = (int) parsePositive(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--stall-checks":
+                    options.stallChecks = (int) parsePositive(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--no-watchdog":
+                    options.watchdog = false;
+                    break;
+                case "--max-open-files":
+                    options.maxOpenFiles = (int) parsePositive(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--off-heap-decks":
+                    options.offHeapDecks = true;
+                    break;
+                case "--event-buffer":
+                    options.eventBufferSize = (int) parsePositive(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--event-policy":
+                    options.eventPolicy = requireValue(args, ++i, arg);
+                    break;
+                case "--cache":
+                    options.cacheDir = requireValue(args, ++i, arg);
+                    break;
+                case "--cache-size":
+                    options.cacheSizeMb = parsePositive(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--cache-files":
+                    options.cacheFiles = true;
+                    break;
+                case "--gzip-output":
+                    options.gzipBlockKb = 16;
+                    break;
+                case "--gzip-block-kb":
+                    options.gzipBlockKb = (int) parsePositive(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--topology":
+                    options.topology = DeckTopology.parse(requireValue(args, ++i, arg));
+                    break;
+                case "--concurrent-decks":
+                    options.concurrentDecks = true;
+                    break;
+                case "--players":
+                    options.players = (int) parsePositive(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--pack":
+                    options.packFile = requireValue(args, ++i, arg);
+                    break;
+                case "--mapped-packs":
+                    options.mappedPacks = true;
+                    break;
+                case "--run-summary":
+                    options.runSummary = true;
+                    break;
+                case "--stats-port":
+                    options.statsPort = parsePort(requireValue(args, ++i, arg), arg);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        // fail on a bad name now rather than once the players are built
+        for (String strategy : options.discardStrategies) {
+            DiscardStrategy.forName(strategy, 0);
+        }
+        GameEventPublisher.forPolicy(options.eventPolicy, options.eventBufferSize).close();
+        return options;
+    }
+
+    // seats cycle through the list so "first,frequency" alternates around the table
+    DiscardStrategy discardStrategyFor(int seat) {
+        return DiscardStrategy.forName(discardStrategies[(seat - 1) % discardStrategies.length], seat);
+    }
+
+    static String requireValue(String[] args, int index, String flag) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + flag);
+        }
+        return args[index];
+    }
+
+    static int parsePort(String value, String flag) {
+        try {
+            int port = Integer.parseInt(value);
+            if (port >= 0 && port <= 65535) {
+                return port;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException(flag + " must be a port number between 0 and 65535. Found: " + value);
+    }
+
+    static long parsePositive(String value, String flag) {
+        try {
+            long parsed = Long.parseLong(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException(flag + " must be a positive integer. Found: " + value);
+    }
+}
@@ -0,0 +1,182 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+// frozen copy of a game: hands, deck contents, turn counters and the winner
+public class GameSnapshot {
+    private static final int MAGIC = 0x43475331; // "CGS1"
+
+    private final int numPlayers;
+    private final int winningPlayer;
+    private final int[] turnCounts;
+    private final int[][] hands;
+    private final int[][] decks;
+
+    public GameSnapshot(int numPlayers, int winningPlayer, int[] turnCounts, int[][] hands, int[][] decks) {
+        if (turnCounts.length != numPlayers || hands.length != numPlayers) {
+            throw new IllegalArgumentException("Snapshot needs one hand and turn count per player");
+        }
+        this.numPlayers = numPlayers;
+        this.winningPlayer = winningPlayer;
+        this.turnCounts = turnCounts;
+        this.hands = hands;
+        this.decks = decks;
+    }
+
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    public int getWinningPlayer() {
+        return winningPlayer;
+    }
+
+    public int getTurnCount(int playerIndex) {
+        return turnCounts[playerIndex];
+    }
+
+    public int[] getHand(int playerIndex) {
+        return hands[playerIndex];
+    }
+
+    public int getNumDecks() {
+        return decks.length;
+    }
+
+    public int[] getDeck(int deckIndex) {
+        return decks[deckIndex];
+    }
+
+    public long getTotalTurns() {
+        long total = 0;
+        for (int turns : turnCounts) {
+            total += turns;
+        }
+        return total;
+    }
+
+    // hash of where every card is, turn counters left out so a repeated position hashes the same
+    // CardGame.positionFingerprint works out the same value on the live game without copying it
+    public long fingerprint() {
+        long hash = FINGERPRINT_START;
+        for (int[] hand : hands) {
+            hash = mix(hash, hand, hand.length);
+        }
+        for (int[] deck : decks) {
+            hash = mix(hash, deck, deck.length);
+        }
+        return hash;
+    }
+
+    static final long FINGERPRINT_START = 0xcbf29ce484222325L;
+
+    // fnv-1a over the count then the cards
+    static long mix(long hash, int[] cards, int count) {
+        hash = mix(hash, count);
+        for (int i = 0; i < count; i++) {
+            hash = mix(hash, cards[i]);
+        }
+        return hash;
+    }
+
+    static long mix(long hash, int value) {
+        return (hash ^ value) * 0x100000001b3L;
+    }
+
+    // written to a temp file first so a crash mid write never leaves a broken checkpoint
+    public void writeToFile(String filename) throws IOException {
+        Path target = Paths.get(filename).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp.toFile()), 1 << 16))) {
+            out.writeInt(MAGIC);
+            writeVarInt(out, numPlayers);
+            writeVarInt(out, winningPlayer);
+            for (int i = 0; i < numPlayers; i++) {
+                writeVarInt(out, turnCounts[i]);
+                writeCards(out, hands[i]);
+            }
+            writeVarInt(out, decks.length);
+            for (int[] deck : decks) {
+                writeCards(out, deck);
+            }
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static GameSnapshot readFromFile(String filename) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(filename), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a game snapshot: " + filename);
+            }
+            int numPlayers = readVarInt(in);
+            int winningPlayer = readVarInt(in);
+            int[] turnCounts = new int[numPlayers];
+            int[][] hands = new int[numPlayers][];
+            for (int i = 0; i < numPlayers; i++) {
+                turnCounts[i] = readVarInt(in);
+                hands[i] = readCards(in);
+            }
+            int[][] decks = new int[readVarInt(in)][];
+            for (int i = 0; i < decks.length; i++) {
+                decks[i] = readCards(in);
+            }
+            return new GameSnapshot(numPlayers, winningPlayer, turnCounts, hands, decks);
+        }
+    }
+
+    private static void writeCards(DataOutputStream out, int[] cards) throws IOException {
+        writeVarInt(out, cards.length);
+        for (int card : cards) {
+            writeVarInt(out, card);
+        }
+    }
+
+    private static int[] readCards(DataInputStream in) throws IOException {
+        int[] cards = new int[readVarInt(in)];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = readVarInt(in);
+        }
+        return cards;
+    }
+
+    // 7 bits per byte, small denominations take a single byte
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Snapshot truncated");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt snapshot varint");
+    }
+}
@@ -0,0 +1,154 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// live numbers for a running game as JSON on http://127.0.0.1:<port>/stats
+// only reads volatile counters (turn counts, deck sizes, backoff retries) so polling never takes
+// a deck lock or holds up a turn, the numbers are a sample not a consistent snapshot
+public class GameStatsServer {
+    private final CardGame game;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long startNanos;
+
+    // touched only by the single handler thread
+    private long lastSampleNanos;
+    private long lastSampleTurns;
+
+    public GameStatsServer(CardGame game, int port) throws IOException {
+        this.game = game;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "stats-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.setExecutor(executor);
+        this.server.createContext("/stats", this::handleStats);
+        this.startNanos = System.nanoTime();
+        this.lastSampleNanos = startNanos;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = statsJson().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    String statsJson() {
+        List<Player> players = game.getPlayers();
+        List<CardDeck> decks = game.getDecks();
+        long now = System.nanoTime();
+
+        long totalTurns = 0;
+        long spins = 0;
+        long spinWaits = 0;
+        long yields = 0;
+        long parks = 0;
+        StringBuilder playerTurns = new StringBuilder();
+        StringBuilder emptyDraws = new StringBuilder();
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            BackoffPolicy backoff = player.getBackoff();
+            int turns = player.getTurnCount();
+            totalTurns += turns;
+            spins += backoff.getSpinRetries();
+            spinWaits += backoff.getSpinWaitRetries();
+            yields += backoff.getYieldRetries();
+            parks += backoff.getParkRetries();
+            if (i > 0) {
+                playerTurns.append(',');
+                emptyDraws.append(',');
+            }
+            playerTurns.append(turns);
+            emptyDraws.append(backoff.getTotalRetries());
+        }
+
+        StringBuilder deckSizes = new StringBuilder();
+        for (int i = 0; i < decks.size(); i++) {
+            if (i > 0) deckSizes.append(',');
+            deckSizes.append(decks.get(i).size());
+        }
+
+        // rate since the previous poll, plus the average since the server started
+        double sinceLast = (now - lastSampleNanos) / 1e9;
+        double turnsPerSecond = sinceLast > 0 ? (totalTurns - lastSampleTurns) / sinceLast : 0;
+        double elapsed = (now - startNanos) / 1e9;
+        lastSampleNanos = now;
+        lastSampleTurns = totalTurns;
+
+        int winner = game.getWinningPlayer();
+        String state = winner == 0 ? "running" : winner == CardGame.ABORTED ? "aborted" : "won";
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        MemoryUsage nonHeap = memory.getNonHeapMemoryUsage();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        StringBuilder json = new StringBuilder(256 + playerTurns.length() + emptyDraws.length() + deckSizes.length());
+        json.append('{');
+        json.append("\"state\":\"").append(state).append("\",");
+        json.append("\"winner\":").append(winner > 0 ? winner : 0).append(',');
+        json.append("\"players\":").append(players.size()).append(',');
+        json.append("\"elapsedSeconds\":").append(round(elapsed)).append(',');
+        json.append("\"totalTurns\":").append(totalTurns).append(',');
+        json.append("\"turnsPerSecond\":").append(round(turnsPerSecond)).append(',');
+        json.append("\"averageTurnsPerSecond\":").append(round(elapsed > 0 ? totalTurns / elapsed : 0)).append(',');
+        json.append("\"emptyDraws\":{\"spin\":").append(spins)
+            .append(",\"spinWait\":").append(spinWaits)
+            .append(",\"yield\":").append(yields)
+            .append(",\"park\":").append(parks)
+            .append(",\"perPlayer\":[").append(emptyDraws).append("]},");
+        json.append("\"playerTurns\":[").append(playerTurns).append("],");
+        json.append("\"deckSizes\":[").append(deckSizes).append("],");
+        json.append("\"jvm\":{\"heapUsed\":").append(heap.getUsed())
+            .append(",\"heapCommitted\":").append(heap.getCommitted())
+            .append(",\"heapMax\":").append(heap.getMax())
+            .append(",\"nonHeapUsed\":").append(nonHeap.getUsed())
+            .append(",\"threads\":").append(threads.getThreadCount())
+            .append(",\"peakThreads\":").append(threads.getPeakThreadCount())
+            .append(",\"processors\":").append(Runtime.getRuntime().availableProcessors())
+            .append('}');
+        json.append('}');
+        return json.toString();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,76 @@
+import java.util.HashMap;
+import java.util.Map;
+
+// stops games that will never finish by themselves
+// every interval it gives up if the turn budget is spent, nobody has taken a turn for a while, or
+// the exact same card positions keep coming back. the first two only read the turn counters, the
+// players are only paused (to hash where the cards are) when cycle detection is on
+// the last one is only a guess: turns interleave differently every run and random discards
+// can still break out of a layout seen before, so CardGame only turns it on with --cycle-repeats
+public class GameWatchdog extends Thread {
+    private static final int MAX_TRACKED_POSITIONS = 100_000;
+
+    private final CardGame game;
+    private final long intervalMs;
+    private final long maxTurns;      // 0 for no budget
+    private final int cycleRepeats;   // 0 to skip cycle detection
+    private final int stallChecks;    // 0 to skip stall detection
+    private final Map<Long, Integer> seenPositions;
+
+    public GameWatchdog(CardGame game, long intervalMs, long maxTurns, int cycleRepeats, int stallChecks) {
+        super("watchdog");
+        setDaemon(true);
+        this.game = game;
+        this.intervalMs = intervalMs;
+        this.maxTurns = maxTurns;
+        this.cycleRepeats = cycleRepeats;
+        this.stallChecks = stallChecks;
+        this.seenPositions = new HashMap<>();
+    }
+
+    @Override
+    public void run() {
+        long lastTurns = -1;
+        int checksWithoutProgress = 0;
+
+        try {
+            while (!isInterrupted()) {
+                Thread.sleep(intervalMs);
+
+                if (game.getWinningPlayer() != 0) {
+                    return;
+                }
+
+                long turns = game.getTotalTurns();
+                if (maxTurns > 0 && turns >= maxTurns) {
+                    game.abort("turn budget of " + maxTurns + " turns used up with no winner");
+                    return;
+                }
+
+                checksWithoutProgress = turns == lastTurns ? checksWithoutProgress + 1 : 0;
+                lastTurns = turns;
+                if (stallChecks > 0 && checksWithoutProgress >= stallChecks) {
+                    game.abort("no player has taken a turn in " + (stallChecks * intervalMs) + " ms");
+                    return;
+                }
+
+                if (cycleRepeats > 0 && checksWithoutProgress == 0) {
+                    if (seenPositions.size() >= MAX_TRACKED_POSITIONS) {
+                        seenPositions.clear();
+                    }
+                    long position = game.positionFingerprint();
+                    if (game.getWinningPlayer() != 0) {
+                        return; // won while we waited for the players to stop
+                    }
+                    int seen = seenPositions.merge(position, 1, Integer::sum);
+                    if (seen >= cycleRepeats) {
+                        game.abort("the same card positions came round " + seen + " times, game is cycling");
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // game finished normally
+        }
+    }
+}
@@ -0,0 +1,71 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// turns a block of log bytes into one complete gzip member
+// a .gz file is just members back to back, so every block already written can be read
+// even while the game is still adding more, and resumed games can append
+// the deflater and output buffer are per thread, each player compresses its own file
+final class GzipBlocks {
+    private static final byte[] HEADER = {
+        0x1f, (byte) 0x8b, 8, 0, // magic, deflate, no flags
+        0, 0, 0, 0,              // no mtime
+        0, (byte) 0xff           // no extra flags, unknown os
+    };
+
+    private static final ThreadLocal<GzipBlocks> LOCAL = ThreadLocal.withInitial(GzipBlocks::new);
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer out = ByteBuffer.allocate(1 << 12);
+
+    private GzipBlocks() {
+    }
+
+    // the result is only good until this thread compresses the next block
+    static ByteBuffer compress(ByteBuffer block) {
+        return LOCAL.get().member(block);
+    }
+
+    private ByteBuffer member(ByteBuffer block) {
+        byte[] input = block.array();
+        int offset = block.arrayOffset() + block.position();
+        int length = block.remaining();
+
+        crc.reset();
+        crc.update(input, offset, length);
+        deflater.reset();
+        deflater.setInput(input, offset, length);
+        deflater.finish();
+
+        // deflate never grows text by more than a few bytes per 16k
+        int bound = HEADER.length + length + (length >> 12) + 64;
+        if (out.capacity() < bound) {
+            out = ByteBuffer.allocate(bound);
+        }
+        byte[] buffer = out.array();
+        System.arraycopy(HEADER, 0, buffer, 0, HEADER.length);
+        int pos = HEADER.length;
+        while (!deflater.finished()) {
+            if (pos == buffer.length - 8) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                out = ByteBuffer.wrap(buffer);
+            }
+            pos += deflater.deflate(buffer, pos, buffer.length - 8 - pos);
+        }
+        writeIntLE(buffer, pos, (int) crc.getValue());
+        writeIntLE(buffer, pos + 4, length);
+
+        out.clear();
+        out.limit(pos + 8);
+        return out;
+    }
+
+    private static void writeIntLE(byte[] buffer, int pos, int value) {
+        buffer[pos] = (byte) value;
+        buffer[pos + 1] = (byte) (value >>> 8);
+        buffer[pos + 2] = (byte) (value >>> 16);
+        buffer[pos + 3] = (byte) (value >>> 24);
+    }
+}
@@ -0,0 +1,659 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+// checks the player<N>_output.txt and deck<N>_output.txt files of a finished ring game, logs from any
+// other --topology are recognised by their deck numbers and turned away with a single error
+// every file is parsed on its own fork join task (big ones memory mapped), then each deck is checked on its own:
+//   - a player's logged hands follow from its draws and discards
+//   - deck k hands out its 4 dealt cards then everything player k-1 discarded, in that order,
+//     and whatever wasnt drawn is what deck k wrote at the end
+//   - 8n cards are still in play at the end and exactly one player won
+// with the pack file the dealt hands and decks are checked against it too (not for resumed games)
+// files written with --gzip-output are read the same way, just decompressed first
+//
+// usage: java LogAnalyzer <players> [--dir <directory>] [--pack <pack file>]
+public class LogAnalyzer {
+    private static final int MAX_REPORTED_ERRORS = 20;
+    // smaller files are just read, a mapping costs more than it saves and 100k players
+    // would run into the kernel's limit on mappings per process
+    private static final int MAP_THRESHOLD = 1 << 16;
+
+    private final int numPlayers;
+    private final Path directory;
+    private int[] pack; // optional
+
+    public LogAnalyzer(int numPlayers, Path directory) {
+        if (numPlayers <= 0) {
+            throw new IllegalArgumentException("Number of players must be positive");
+        }
+        this.numPlayers = numPlayers;
+        this.directory = directory;
+    }
+
+    public boolean loadPack(String filename) {
+        List<Card> cards = new ArrayList<>();
+        if (!CardGame.readAndValidatePack(filename, numPlayers, cards)) {
+            return false;
+        }
+        pack = cards.stream().mapToInt(Card::getDenomination).toArray();
+        return true;
+    }
+
+    public Report analyze() {
+        long start = System.nanoTime();
+        Report report = new Report(numPlayers);
+
+        PlayerLog[] players = IntStream.rangeClosed(1, numPlayers).parallel()
+                .mapToObj(p -> readPlayerLog(p, report))
+                .toArray(PlayerLog[]::new);
+        // other topologies share decks between players, none of the per deck checks below would hold
+        for (PlayerLog log : players) {
+            if (log != null && log.offRing != null) {
+                report.error(log.offRing + ", these logs arent from a ring game and only ring games can be checked");
+                report.elapsedMs = (System.nanoTime() - start) / 1_000_000;
+                return report;
+            }
+        }
+        int[][] finalDecks = IntStream.rangeClosed(1, numPlayers).parallel()
+                .mapToObj(d -> readDeckLog(d, report))
+                .toArray(int[][]::new);
+
+        IntStream.rangeClosed(1, numPlayers).parallel().forEach(d -> checkDeck(d, players, finalDecks, report));
+        checkWinner(players, report);
+
+        long cardsLeft = 0;
+        for (int p = 0; p < numPlayers; p++) {
+            if (players[p] != null) {
+                report.addTurns(players[p].discards.size());
+                cardsLeft += players[p].hand.size();
+            }
+            if (finalDecks[p] != null) {
+                cardsLeft += finalDecks[p].length;
+            }
+        }
+        report.cardsLeft = cardsLeft;
+        if (cardsLeft != 8L * numPlayers) {
+            report.error("expected " + (8L * numPlayers) + " cards at the end but found " + cardsLeft);
+        }
+
+        report.elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        return report;
+    }
+
+    private PlayerLog readPlayerLog(int player, Report report) {
+        Path file = OutputFileReader.resolve(directory, "player" + player + "_output.txt");
+        ByteBuffer bytes = null;
+        try {
+            bytes = read(file);
+            report.addBytes(bytes.remaining());
+            return parsePlayer(player, new Lines(bytes), report);
+        } catch (NoSuchFileException e) {
+            report.error("missing " + file.getFileName());
+        } catch (IOException e) {
+            report.error("cannot read " + file.getFileName() + ": " + e.getMessage());
+        } finally {
+            unmap(bytes);
+        }
+        return null;
+    }
+
+    private int[] readDeckLog(int deck, Report report) {
+        Path file = OutputFileReader.resolve(directory, "deck" + deck + "_output.txt");
+        ByteBuffer bytes = null;
+        try {
+            bytes = read(file);
+            report.addBytes(bytes.remaining());
+            Lines lines = new Lines(bytes);
+            if (!lines.next() || !lines.skip("deck") || lines.readInt() != deck || !lines.skip(" contents:")) {
+                report.error(file.getFileName() + " does not start with deck" + deck + " contents:");
+                return null;
+            }
+            return lines.readCards().toArray();
+        } catch (NoSuchFileException e) {
+            report.error("missing " + file.getFileName());
+        } catch (IOException e) {
+            report.error("cannot read " + file.getFileName() + ": " + e.getMessage());
+        } finally {
+            unmap(bytes);
+        }
+        return null;
+    }
+
+    private static ByteBuffer read(Path file) throws IOException {
+        if (OutputFileReader.isCompressed(file)) {
+            return ByteBuffer.wrap(OutputFileReader.readAllBytes(file));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("file is over 2 GB");
+            }
+            if (size >= MAP_THRESHOLD) {
+                // the mapping stays valid after the channel closes
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer bytes = ByteBuffer.allocate((int) size);
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // keep reading
+            }
+            bytes.flip();
+            return bytes;
+        }
+    }
+
+    // nothing refers to the bytes once a file is parsed, drop the mapping now
+    private static void unmap(ByteBuffer bytes) {
+        if (bytes != null && bytes.isDirect()) {
+            DeckArena.release(bytes);
+        }
+    }
+
+    // replays one player's file, its hand has to match every line it logged
+    private PlayerLog parsePlayer(int player, Lines lines, Report report) {
+        PlayerLog log = new PlayerLog();
+        String name = "player" + player + "_output.txt";
+        int drawDeck = player;
+        int discardDeck = player % numPlayers + 1;
+        int lineNumber = 0;
+
+        while (lines.next()) {
+            lineNumber++;
+            if (!lines.skip("player ")) {
+                report.error(name + ":" + lineNumber + " unreadable line");
+                return log;
+            }
+            int subject = lines.readInt();
+            if (!lines.skip(" ")) {
+                report.error(name + ":" + lineNumber + " unreadable line");
+                return log;
+            }
+
+            if (subject != player) {
+                // "player W has informed player N that player W has won"
+                if (lines.skip("has informed player ") && lines.readInt() == player
+                        && lines.skip(" that player ") && lines.readInt() == subject && lines.skip(" has won")) {
+                    log.informedOf = subject;
+                } else {
+                    report.error(name + ":" + lineNumber + " line about player " + subject);
+                }
+            } else if (lines.skip("initial hand")) {
+                log.initialHand = lines.readCards();
+                if (log.initialHand.size() != 4) {
+                    report.error(name + ":" + lineNumber + " initial hand has " + log.initialHand.size() + " cards");
+                }
+                log.hand = log.initialHand.copy();
+            } else if (lines.skip("draws a ")) {
+                int card = lines.readInt();
+                if (!lines.skip(" from deck ")) {
+                    report.error(name + ":" + lineNumber + " unreadable line");
+                } else if (lines.readInt() != drawDeck && log.offRing == null) {
+                    log.offRing = name + ":" + lineNumber + " draws from a deck other than deck " + drawDeck;
+                }
+                log.draws.add(card);
+                log.hand.add(card);
+            } else if (lines.skip("discards a ")) {
+                int card = lines.readInt();
+                if (!lines.skip(" to deck ")) {
+                    report.error(name + ":" + lineNumber + " unreadable line");
+                } else if (lines.readInt() != discardDeck && log.offRing == null) {
+                    log.offRing = name + ":" + lineNumber + " discards to a deck other than deck " + discardDeck;
+                }
+                // takes out the first copy, checkHand puts the order right if the player threw another one
+                if (!log.hand.remove(card)) {
+                    report.error(name + ":" + lineNumber + " discards a " + card + " it doesnt hold");
+                }
+                log.discards.add(card);
+            } else if (lines.skip("current hand is")) {
+                checkHand(log.hand, lines.readCards(), name, lineNumber, report);
+            } else if (lines.skip("final hand:")) {
+                checkHand(log.hand, lines.readCards(), name, lineNumber, report);
+                log.finished = true;
+            } else if (lines.skip("wins")) {
+                log.won = true;
+            } else if (!lines.skip("exits")) {
+                report.error(name + ":" + lineNumber + " unreadable line");
+            }
+        }
+
+        if (log.initialHand == null) {
+            report.error(name + " has no initial hand");
+        }
+        if (!log.finished) {
+            report.error(name + " has no final hand");
+        }
+        return log;
+    }
+
+    // compared as multisets, with two of a number the log doesnt say which one went
+    // so the replay takes the logged order afterwards
+    private static void checkHand(IntList expected, IntList logged, String name, int lineNumber, Report report) {
+        if (expected.equals(logged)) {
+            return;
+        }
+        int[] a = expected.toArray();
+        int[] b = logged.toArray();
+        Arrays.sort(a);
+        Arrays.sort(b);
+        if (Arrays.equals(a, b)) {
+            expected.setAll(logged);
+        } else {
+            report.error(name + ":" + lineNumber + " hand should be " + expected + " but is " + logged);
+        }
+    }
+
+    // what deck d gave out must be its dealt cards followed by every discard into it
+    private void checkDeck(int deck, PlayerLog[] players, int[][] finalDecks, Report report) {
+        PlayerLog drawer = players[deck - 1];
+        int previous = (deck + numPlayers - 2) % numPlayers + 1;
+        PlayerLog discarder = players[previous - 1];
+        int[] finalCards = finalDecks[deck - 1];
+        if (drawer == null || discarder == null || finalCards == null) {
+            return; // already reported as missing
+        }
+
+        IntList draws = drawer.draws;
+        IntList discards = discarder.discards;
+        int dealt = Math.min(4, draws.size());
+
+        if (pack != null) {
+            // player d was dealt hand cards the same way deck d was dealt deck cards
+            IntList hand = drawer.initialHand;
+            for (int round = 0; hand != null && round < hand.size(); round++) {
+                if (hand.get(round) != pack[round * numPlayers + deck - 1]) {
+                    report.error("player " + deck + " initial hand " + hand + " doesnt match the pack");
+                    break;
+                }
+            }
+            for (int round = 0; round < dealt; round++) {
+                int card = pack[(4 + round) * numPlayers + deck - 1];
+                if (draws.get(round) != card) {
+                    report.error("deck" + deck + " card " + (round + 1) + " drawn as " + draws.get(round)
+                            + " but the pack dealt " + card);
+                    return;
+                }
+            }
+        }
+
+        // after the 4 dealt cards, draws replay the discards in order
+        for (int i = dealt; i < draws.size(); i++) {
+            int discardIndex = i - 4;
+            if (discardIndex >= discards.size()) {
+                report.error("deck" + deck + " gave out " + draws.size() + " cards but only "
+                        + (4 + discards.size()) + " went in");
+                return;
+            }
+            if (draws.get(i) != discards.get(discardIndex)) {
+                report.error("deck" + deck + " draw " + (i + 1) + " was a " + draws.get(i) + " but player "
+                        + previous + " discarded a " + discards.get(discardIndex));
+                return;
+            }
+        }
+
+        // leftover = undrawn dealt cards + undrawn discards
+        int expectedSize = 4 + discards.size() - draws.size();
+        if (finalCards.length != expectedSize) {
+            report.error("deck" + deck + " ends with " + finalCards.length + " cards, expected " + expectedSize);
+            return;
+        }
+        int undrawnDealt = 4 - dealt;
+        for (int i = undrawnDealt; i < finalCards.length; i++) {
+            int discardIndex = draws.size() - 4 + i;
+            if (finalCards[i] != discards.get(discardIndex)) {
+                report.error("deck" + deck + " final contents dont match player " + previous + "'s discards");
+                return;
+            }
+        }
+        if (pack != null) {
+            for (int i = 0; i < undrawnDealt; i++) {
+                if (finalCards[i] != pack[(4 + dealt + i) * numPlayers + deck - 1]) {
+                    report.error("deck" + deck + " final contents dont match the pack");
+                    return;
+                }
+            }
+        }
+    }
+
+    private void checkWinner(PlayerLog[] players, Report report) {
+        int winner = 0;
+        for (int p = 1; p <= numPlayers; p++) {
+            PlayerLog log = players[p - 1];
+            if (log == null || !log.won) {
+                continue;
+            }
+            if (winner != 0) {
+                report.error("players " + winner + " and " + p + " both won");
+            }
+            winner = p;
+            if (!log.hand.isFourOfAKind()) {
+                report.error("player " + p + " won holding " + log.hand);
+            }
+        }
+        if (winner == 0) {
+            report.error("nobody won");
+            return;
+        }
+        report.winner = winner;
+        report.winningHand = players[winner - 1].hand.toString();
+
+        for (int p = 1; p <= numPlayers; p++) {
+            PlayerLog log = players[p - 1];
+            if (log != null && p != winner && log.informedOf != winner) {
+                report.error("player " + p + " was not told that player " + winner + " won");
+            }
+        }
+    }
+
+    private static final class PlayerLog {
+        IntList initialHand;
+        IntList hand = new IntList(5);
+        final IntList draws = new IntList(16);
+        final IntList discards = new IntList(16);
+        int informedOf;
+        boolean won;
+        boolean finished;
+        String offRing; // first draw or discard that isnt the ring's deck
+    }
+
+    // growable int array so long logs dont box every card
+    static final class IntList {
+        private int[] values;
+        private int size;
+
+        IntList(int capacity) {
+            values = new int[Math.max(capacity, 1)];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        // first occurrence, same as the player keeps the rest of its hand in order
+        boolean remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    System.arraycopy(values, i + 1, values, i, size - i - 1);
+                    size--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        void setAll(IntList other) {
+            values = Arrays.copyOf(other.values, Math.max(other.values.length, values.length));
+            size = other.size;
+        }
+
+        IntList copy() {
+            IntList copy = new IntList(values.length);
+            System.arraycopy(values, 0, copy.values, 0, size);
+            copy.size = size;
+            return copy;
+        }
+
+        boolean isFourOfAKind() {
+            if (size != 4) return false;
+            for (int i = 1; i < 4; i++) {
+                if (values[i] != values[0]) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof IntList)) return false;
+            IntList list = (IntList) other;
+            return size == list.size && Arrays.equals(values, 0, size, list.values, 0, list.size);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (int i = 0; i < size; i++) {
+                hash = 31 * hash + values[i];
+            }
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < size; i++) {
+                if (i > 0) sb.append(' ');
+                sb.append(values[i]);
+            }
+            return sb.toString();
+        }
+    }
+
+    // walks a file line by line straight off the mapped bytes, nothing is decoded to a String
+    static final class Lines {
+        private final ByteBuffer bytes;
+        private int pos;
+        private int end; // end of the current line
+
+        Lines(ByteBuffer bytes) {
+            this.bytes = bytes;
+            this.pos = 0;
+            this.end = -1;
+        }
+
+        // moves to the next non empty line
+        boolean next() {
+            int limit = bytes.limit();
+            pos = end < 0 ? 0 : end + 1;
+            while (pos < limit && (bytes.get(pos) == '\n' || bytes.get(pos) == '\r')) {
+                pos++;
+            }
+            if (pos >= limit) {
+                return false;
+            }
+            end = pos;
+            while (end < limit && bytes.get(end) != '\n') {
+                end++;
+            }
+            return true;
+        }
+
+        private int lineEnd() {
+            return end > pos && bytes.get(end - 1) == '\r' ? end - 1 : end;
+        }
+
+        boolean skip(String text) {
+            int length = text.length();
+            if (pos + length > lineEnd()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (bytes.get(pos + i) != text.charAt(i)) {
+                    return false;
+                }
+            }
+            pos += length;
+            return true;
+        }
+
+        // -1 if there is no number here
+        int readInt() {
+            int lineEnd = lineEnd();
+            int start = pos;
+            long value = 0;
+            while (pos < lineEnd) {
+                int b = bytes.get(pos);
+                if (b < '0' || b > '9') break;
+                value = value * 10 + (b - '0');
+                if (value > Integer.MAX_VALUE) return -1;
+                pos++;
+            }
+            return pos == start ? -1 : (int) value;
+        }
+
+        // space separated numbers up to the end of the line
+        IntList readCards() {
+            IntList cards = new IntList(8);
+            int lineEnd = lineEnd();
+            while (pos < lineEnd) {
+                if (bytes.get(pos) == ' ') {
+                    pos++;
+                    continue;
+                }
+                int card = readInt();
+                if (card < 0) {
+                    break;
+                }
+                cards.add(card);
+            }
+            return cards;
+        }
+    }
+
+    public static final class Report {
+        private final int numPlayers;
+        private final Queue<String> errors = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger errorCount = new AtomicInteger();
+        private final LongAdder bytesRead = new LongAdder();
+        private long totalTurns;
+        private long minTurns = Long.MAX_VALUE;
+        private long maxTurns;
+        private long cardsLeft;
+        private int winner;
+        private String winningHand;
+        private long elapsedMs;
+
+        Report(int numPlayers) {
+            this.numPlayers = numPlayers;
+        }
+
+        void error(String message) {
+            if (errorCount.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        void addBytes(long bytes) {
+            bytesRead.add(bytes);
+        }
+
+        void addTurns(long turns) {
+            totalTurns += turns;
+            minTurns = Math.min(minTurns, turns);
+            maxTurns = Math.max(maxTurns, turns);
+        }
+
+        public boolean isValid() {
+            return errorCount.get() == 0;
+        }
+
+        public int getErrorCount() {
+            return errorCount.get();
+        }
+
+        public List<String> getErrors() {
+            return new ArrayList<>(errors);
+        }
+
+        public int getWinner() {
+            return winner;
+        }
+
+        public long getTotalTurns() {
+            return totalTurns;
+        }
+
+        public long getCardsLeft() {
+            return cardsLeft;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Analyzed ").append(numPlayers).append(" players (")
+              .append(bytesRead.sum() / 1024).append(" KB of logs) in ").append(elapsedMs).append(" ms\n");
+            sb.append("turns: ").append(totalTurns).append(" total, per player min ")
+              .append(minTurns == Long.MAX_VALUE ? 0 : minTurns).append(" mean ")
+              .append(String.format("%.1f", (double) totalTurns / numPlayers)).append(" max ").append(maxTurns).append('\n');
+            sb.append("cards in play at the end: ").append(cardsLeft).append('\n');
+            if (winner != 0) {
+                sb.append("winner: player ").append(winner).append(" with ").append(winningHand).append('\n');
+            }
+            if (isValid()) {
+                sb.append("All checks passed");
+            } else {
+                sb.append(errorCount.get()).append(" problems found");
+                for (String error : errors) {
+                    sb.append("\n  ").append(error);
+                }
+                if (errorCount.get() > errors.size()) {
+                    sb.append("\n  ...");
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java LogAnalyzer <players> [--dir <directory>] [--pack <pack file>]");
+            return;
+        }
+        try {
+            int players = Integer.parseInt(args[0]);
+            String dir = ".";
+            String packFile = null;
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--dir":
+                        dir = GameOptions.requireValue(args, ++i, args[i - 1]);
+                        break;
+                    case "--pack":
+                        packFile = GameOptions.requireValue(args, ++i, args[i - 1]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+
+            LogAnalyzer analyzer = new LogAnalyzer(players, Paths.get(dir));
+            if (packFile != null && !analyzer.loadPack(packFile)) {
+                System.exit(1);
+            }
+            Report report = analyzer.analyze();
+            System.out.println(report);
+            if (!report.isValid()) {
+                System.exit(1);
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Error: Invalid number: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+}
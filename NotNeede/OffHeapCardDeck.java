@@ -0,0 +1,151 @@
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReentrantLock;
+
+// CardDeck that keeps denominations in a ring buffer of ints outside the heap
+// cards are handed out as shared Card.of instances so the heap cost doesnt grow with the deck
+public class OffHeapCardDeck extends CardDeck {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final DeckArena arena;
+    private final ReentrantLock lock;
+    private ByteBuffer slots;
+    private int capacity;
+    private int head;
+    private volatile int count;
+
+    public OffHeapCardDeck(int deckNumber, DeckArena arena) {
+        super(deckNumber);
+        this.arena = arena;
+        this.lock = new ReentrantLock();
+        this.capacity = INITIAL_CAPACITY;
+        this.slots = arena.allocate(capacity * Integer.BYTES);
+        arena.register(this);
+    }
+
+    // called by the arena before it frees our buffer, the cards are gone after this
+    void detach() {
+        lock.lock();
+        try {
+            slots = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // slots is only read under the lock, so a deck cant be detached halfway through a read
+    private ByteBuffer slots() {
+        if (slots == null) {
+            throw new IllegalStateException("Deck " + getDeckNumber() + " was freed with its arena");
+        }
+        return slots;
+    }
+
+    @Override
+    public Card drawCard() {
+        lock.lock();
+        try {
+            ByteBuffer slots = slots();
+            if (count == 0) {
+                return null;
+            }
+            int denomination = slots.getInt(head * Integer.BYTES);
+            head = (head + 1) % capacity;
+            count--;
+            return Card.of(denomination);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void discardCard(Card card) {
+        lock.lock();
+        try {
+            slots();
+            if (count == capacity) {
+                grow();
+            }
+            slots.putInt(((head + count) % capacity) * Integer.BYTES, card.getDenomination());
+            count++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addCard(Card card) {
+        discardCard(card);
+    }
+
+    // double the ring and unwrap it so head goes back to 0
+    private void grow() {
+        int newCapacity = capacity * 2;
+        if (newCapacity < 0 || (long) newCapacity * Integer.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Deck " + getDeckNumber() + " is too big for one buffer");
+        }
+        ByteBuffer bigger = arena.allocate(newCapacity * Integer.BYTES);
+        for (int i = 0; i < count; i++) {
+            bigger.putInt(i * Integer.BYTES, slots.getInt(((head + i) % capacity) * Integer.BYTES));
+        }
+        arena.free(slots);
+        slots = bigger;
+        capacity = newCapacity;
+        head = 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int[] getDenominations() {
+        lock.lock();
+        try {
+            ByteBuffer slots = slots();
+            int[] denominations = new int[count];
+            for (int i = 0; i < count; i++) {
+                denominations[i] = slots.getInt(((head + i) % capacity) * Integer.BYTES);
+            }
+            return denominations;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    long fingerprint(long hash) {
+        lock.lock();
+        try {
+            ByteBuffer slots = slots();
+            hash = GameSnapshot.mix(hash, count);
+            for (int i = 0; i < count; i++) {
+                hash = GameSnapshot.mix(hash, slots.getInt(((head + i) % capacity) * Integer.BYTES));
+            }
+            return hash;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            ByteBuffer slots = slots();
+            StringBuilder sb = new StringBuilder();
+            sb.append("deck").append(getDeckNumber()).append(" contents:");
+            for (int i = 0; i < count; i++) {
+                sb.append(" ").append(slots.getInt(((head + i) % capacity) * Integer.BYTES));
+            }
+            return sb.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// a player or deck output file written through an OutputFilePool
+// lines are buffered here and only handed to the pool on flush, one writer thread per file
+// compressed files hold lines back until a whole block is ready, gzip on a single turn would
+// come out bigger than the text
+public class OutputFile {
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MIN_VALUE_TEXT = String.valueOf(Integer.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private final String filename;
+    private final OutputFilePool pool;
+    private final int gzipBlockSize; // 0 for plain text
+    private ByteBuffer pending;
+    boolean started; // set once the file has been created, guarded by the pool
+
+    OutputFile(String filename, OutputFilePool pool, boolean append, int gzipBlockSize) {
+        this.filename = filename;
+        this.pool = pool;
+        this.gzipBlockSize = gzipBlockSize;
+        this.pending = ByteBuffer.allocate(256);
+        this.started = append;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void println(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        ensureRoom(bytes.length + LINE_SEPARATOR.length);
+        pending.put(bytes).put(LINE_SEPARATOR);
+    }
+
+    // allocation free way to build a line: put the pieces then endLine(), nothing is
+    // allocated once the buffer has grown to the longest run of lines between flushes
+    public OutputFile put(byte[] bytes) {
+        ensureRoom(bytes.length);
+        pending.put(bytes);
+        return this;
+    }
+
+    // decimal digits straight into the buffer, same text as String.valueOf(value)
+    public OutputFile put(int value) {
+        if (value == Integer.MIN_VALUE) {
+            return put(MIN_VALUE_TEXT);
+        }
+        ensureRoom(11);
+        if (value < 0) {
+            pending.put((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (int rest = value; rest >= 10; rest /= 10) {
+            digits++;
+        }
+        int end = pending.position() + digits;
+        for (int i = end - 1; i >= pending.position(); i--) {
+            pending.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        pending.position(end);
+        return this;
+    }
+
+    public void endLine() {
+        put(LINE_SEPARATOR);
+    }
+
+    private void ensureRoom(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            bigger.put(pending);
+            pending = bigger;
+        }
+    }
+
+    public void flush() {
+        if (gzipBlockSize == 0 || pending.position() >= gzipBlockSize) {
+            write();
+        }
+    }
+
+    private void write() {
+        if (pending.position() == 0) {
+            return;
+        }
+        pending.flip();
+        try {
+            pool.write(this, gzipBlockSize == 0 ? pending : GzipBlocks.compress(pending));
+        } catch (IOException e) {
+            System.err.println("Error writing " + filename + ": " + e.getMessage());
+        }
+        pending.clear();
+    }
+
+    // same file again for a new game, truncated on the next write, keeps the grown buffer
+    // only valid once close() has handed the channel back
+    void reopen() {
+        pending.clear();
+        pool.restart(this);
+    }
+
+    public void close() {
+        write();
+        try {
+            pool.close(this);
+        } catch (IOException e) {
+            System.err.println("Error closing " + filename + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,248 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+// keeps at most `capacity` output files open no matter how many players there are
+// least recently written files get closed and are reopened in append mode next time
+// the pool lock only covers the bookkeeping, opening, closing and writing all happen outside it,
+// a channel being written is pinned so it cant be evicted mid write
+public class OutputFilePool {
+    static final String GZIP_SUFFIX = ".gz";
+    private static final OutputFilePool DEFAULT = new OutputFilePool(256);
+
+    private final int capacity;
+    private final int gzipBlockSize; // 0 means plain text
+    private final LinkedHashMap<OutputFile, Entry> open;
+
+    private static final class Entry {
+        final FileChannel channel;
+        int pins;
+        boolean evicted;
+
+        Entry(FileChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    public OutputFilePool(int capacity) {
+        this(capacity, 0);
+    }
+
+    // with a block size every file gets .gz on the end and is written as gzip, one member per block
+    public OutputFilePool(int capacity, int gzipBlockSize) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Pool capacity must be positive");
+        }
+        if (gzipBlockSize < 0) {
+            throw new IllegalArgumentException("Gzip block size cant be negative");
+        }
+        this.capacity = capacity;
+        this.gzipBlockSize = gzipBlockSize;
+        this.open = new LinkedHashMap<>(16, 0.75f, true); // access order gives us LRU
+    }
+
+    public static OutputFilePool getDefault() {
+        return DEFAULT;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int getOpenCount() {
+        return open.size();
+    }
+
+    public boolean isCompressed() {
+        return gzipBlockSize > 0;
+    }
+
+    // name the file really ends up with
+    public String nameFor(String filename) {
+        return isCompressed() ? filename + GZIP_SUFFIX : filename;
+    }
+
+    public OutputFile openFile(String filename, boolean append) {
+        return new OutputFile(nameFor(filename), this, append, gzipBlockSize);
+    }
+
+    // cuts a file that isnt open back to its first `lines` lines, for resumed games whose logs ran on
+    // past the checkpoint. a compressed file is rewritten as one member, a cut off last member
+    // (the game died mid write) is read as far as it goes
+    public void keepLines(String filename, long lines) throws IOException {
+        Path path = Paths.get(nameFor(filename));
+        if (!Files.exists(path)) {
+            return;
+        }
+        if (!isCompressed()) {
+            long end;
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+                end = lineEnd(in, lines);
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(end);
+            }
+            return;
+        }
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            byte[] buffer = new byte[8192];
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                text.write(buffer, 0, read);
+            }
+        } catch (EOFException e) {
+            // keep what was readable
+        }
+        byte[] bytes = text.toByteArray();
+        int end = (int) lineEnd(new ByteArrayInputStream(bytes), lines);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer member = GzipBlocks.compress(ByteBuffer.wrap(bytes, 0, end));
+            while (member.hasRemaining()) {
+                channel.write(member);
+            }
+        }
+    }
+
+    // offset just past the lines'th newline, or the end when there are fewer lines
+    private static long lineEnd(InputStream in, long lines) throws IOException {
+        long offset = 0;
+        long seen = 0;
+        for (int b; seen < lines && (b = in.read()) >= 0; ) {
+            offset++;
+            if (b == '\n') {
+                seen++;
+            }
+        }
+        return offset;
+    }
+
+    void write(OutputFile file, ByteBuffer data) throws IOException {
+        Entry entry = acquire(file);
+        try {
+            while (data.hasRemaining()) {
+                entry.channel.write(data);
+            }
+        } finally {
+            release(entry);
+        }
+    }
+
+    // opening and closing channels is slow (a syscall, and on some filesystems a flush), so it
+    // happens outside the lock and only putting entries in and taking them out is done under it
+    private Entry acquire(OutputFile file) throws IOException {
+        boolean append;
+        synchronized (this) {
+            Entry entry = open.get(file);
+            if (entry != null) {
+                entry.pins++;
+                return entry;
+            }
+            // first open of a new file truncates it, every reopen after that appends
+            append = file.started;
+            file.started = true;
+        }
+        FileChannel channel;
+        try {
+            channel = append
+                    ? FileChannel.open(Paths.get(file.getFilename()), StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.APPEND)
+                    : FileChannel.open(Paths.get(file.getFilename()), StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            synchronized (this) {
+                file.started = append;
+            }
+            throw e;
+        }
+        Entry entry;
+        List<FileChannel> toClose = new ArrayList<>();
+        synchronized (this) {
+            entry = open.get(file);
+            if (entry == null) {
+                entry = new Entry(channel);
+                entry.pins++; // pinned before evicting so it cant throw itself out
+                open.put(file, entry);
+                evictOverCapacity(toClose);
+            } else {
+                entry.pins++;
+                toClose.add(channel); // someone else opened it first, use theirs
+            }
+        }
+        closeAll(toClose);
+        return entry;
+    }
+
+    private void release(Entry entry) throws IOException {
+        boolean last;
+        synchronized (this) {
+            entry.pins--;
+            last = entry.evicted && entry.pins == 0;
+        }
+        if (last) {
+            entry.channel.close();
+        }
+    }
+
+    // pinned channels are skipped, so the pool can briefly go over capacity while they finish
+    // evicted channels are handed back to be closed once the lock is let go
+    private void evictOverCapacity(List<FileChannel> toClose) {
+        Iterator<Map.Entry<OutputFile, Entry>> it = open.entrySet().iterator();
+        while (open.size() > capacity && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            if (eldest.pins == 0) {
+                it.remove();
+                toClose.add(eldest.channel);
+            }
+        }
+    }
+
+    private static void closeAll(List<FileChannel> channels) throws IOException {
+        IOException failure = null;
+        for (FileChannel channel : channels) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // a closed file being used for a new game, the next open truncates it again
+    synchronized void restart(OutputFile file) {
+        file.started = false;
+    }
+
+    void close(OutputFile file) throws IOException {
+        Entry entry;
+        synchronized (this) {
+            entry = open.remove(file);
+            if (entry == null) {
+                return;
+            }
+            if (entry.pins > 0) {
+                entry.evicted = true; // the last release closes it
+                return;
+            }
+        }
+        entry.channel.close();
+    }
+}
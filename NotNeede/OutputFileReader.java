@@ -0,0 +1,55 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+// reads player and deck output files whether they were written plain or with --gzip-output
+public final class OutputFileReader {
+
+    private OutputFileReader() {
+    }
+
+    // name as given, or name + ".gz" if only the compressed one is there
+    public static Path resolve(Path directory, String name) {
+        Path plain = directory.resolve(name);
+        if (Files.exists(plain)) {
+            return plain;
+        }
+        Path compressed = directory.resolve(name + OutputFilePool.GZIP_SUFFIX);
+        return Files.exists(compressed) ? compressed : plain;
+    }
+
+    public static boolean isCompressed(Path file) {
+        return file.getFileName().toString().endsWith(OutputFilePool.GZIP_SUFFIX);
+    }
+
+    public static InputStream open(Path file) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+        return isCompressed(file) ? new GZIPInputStream(in, 1 << 16) : in;
+    }
+
+    public static byte[] readAllBytes(Path file) throws IOException {
+        if (!isCompressed(file)) {
+            return Files.readAllBytes(file);
+        }
+        try (InputStream in = open(file)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(Files.size(file) * 8, 1 << 26));
+            in.transferTo(out);
+            return out.toByteArray();
+        }
+    }
+
+    // player1_output.txt or player1_output.txt.gz, whichever the game wrote
+    public static String readString(Path directory, String name) throws IOException {
+        Path file = resolve(directory, name);
+        if (!Files.exists(file)) {
+            throw new NoSuchFileException(file.toString());
+        }
+        return new String(readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,105 @@
+import java.util.Arrays;
+import java.util.List;
+
+// denomination histogram of a pack, worked out before any threads start
+// a player can only win holding four of one denomination, so with no denomination
+// appearing four times the game can never end
+public class PackAnalysis {
+    private static final int MAX_DENSE_DENOMINATION = 1 << 24;
+
+    private final int[] denominations; // distinct values, ascending
+    private final int[] counts;        // matching counts
+    private final int cardCount;
+
+    public PackAnalysis(int[] pack) {
+        this.cardCount = pack.length;
+        PackKernels kernels = PackKernels.get();
+        int[] range = kernels.range(pack, pack.length);
+        if (range[0] < 0) {
+            throw new IllegalArgumentException("Card denomination must be non-negative");
+        }
+        int max = range[1];
+
+        if (max < MAX_DENSE_DENOMINATION) {
+            // small denominations, count straight into an array
+            int[] dense = new int[max + 1];
+            kernels.count(pack, pack.length, dense);
+            int distinct = 0;
+            for (int count : dense) {
+                if (count > 0) distinct++;
+            }
+            denominations = new int[distinct];
+            counts = new int[distinct];
+            int next = 0;
+            for (int value = 0; value < dense.length; value++) {
+                if (dense[value] > 0) {
+                    denominations[next] = value;
+                    counts[next++] = dense[value];
+                }
+            }
+        } else {
+            // huge denominations, sort a copy and count runs instead
+            int[] sorted = pack.clone();
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) distinct++;
+            }
+            denominations = new int[distinct];
+            counts = new int[distinct];
+            int next = -1;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    denominations[++next] = sorted[i];
+                }
+                counts[next]++;
+            }
+        }
+    }
+
+    public static PackAnalysis of(List<Card> pack) {
+        int[] values = new int[pack.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = pack.get(i).getDenomination();
+        }
+        return new PackAnalysis(values);
+    }
+
+    public int getCardCount() {
+        return cardCount;
+    }
+
+    public int getDistinctDenominations() {
+        return denominations.length;
+    }
+
+    public int getCount(int denomination) {
+        int index = Arrays.binarySearch(denominations, denomination);
+        return index >= 0 ? counts[index] : 0;
+    }
+
+    // how many denominations have enough copies for somebody to win with
+    public int getWinnableDenominations() {
+        int winnable = 0;
+        for (int count : counts) {
+            if (count >= 4) winnable++;
+        }
+        return winnable;
+    }
+
+    public boolean isWinnable() {
+        return getWinnableDenominations() > 0;
+    }
+
+    public int getMostCommonDenomination() {
+        int best = -1;
+        int bestCount = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > bestCount) {
+                bestCount = counts[i];
+                best = denominations[i];
+            }
+        }
+        return best;
+    }
+}
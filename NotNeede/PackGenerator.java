@@ -0,0 +1,204 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+
+// makes valid packs (8n non-negative cards) of any size for benchmarks and stress runs
+// usage: java PackGenerator <players> <output file> [uniform|skewed|adversarial] [seed]
+public class PackGenerator {
+
+    public enum Distribution {
+        UNIFORM,     // every denomination 1..n equally likely
+        SKEWED,      // zipf style, low denominations much more common
+        ADVERSARIAL  // eight of each, dealt so nobody starts with or is handed their own number
+    }
+
+    private final int numPlayers;
+    private final Distribution distribution;
+    private final long seed;
+
+    public PackGenerator(int numPlayers, Distribution distribution, long seed) {
+        if (numPlayers <= 0) {
+            throw new IllegalArgumentException("Number of players must be positive");
+        }
+        if ((long) numPlayers * 8 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many players for a single pack: " + numPlayers);
+        }
+        this.numPlayers = numPlayers;
+        this.distribution = distribution;
+        this.seed = seed;
+    }
+
+    public int getPackSize() {
+        return 8 * numPlayers;
+    }
+
+    public int[] generate() {
+        int[] pack = new int[getPackSize()];
+        CardSource source = newSource();
+        for (int i = 0; i < pack.length; i++) {
+            pack[i] = source.cardAt(i);
+        }
+        return pack;
+    }
+
+    // streams straight to disk so the pack never has to fit in memory
+    public void writeToFile(String filename) throws IOException {
+        CardSource source = newSource();
+        int packSize = getPackSize();
+        byte[] buffer = new byte[1 << 16];
+        int pos = 0;
+
+        try (OutputStream out = new FileOutputStream(filename)) {
+            for (int i = 0; i < packSize; i++) {
+                if (pos > buffer.length - 12) {
+                    out.write(buffer, 0, pos);
+                    pos = 0;
+                }
+                pos = writeDigits(buffer, pos, source.cardAt(i));
+                buffer[pos++] = '\n';
+            }
+            out.write(buffer, 0, pos);
+        }
+    }
+
+    private static int writeDigits(byte[] buffer, int pos, int value) {
+        int end = pos + digitCount(value);
+        int i = end;
+        do {
+            buffer[--i] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        return end;
+    }
+
+    private static int digitCount(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private CardSource newSource() {
+        switch (distribution) {
+            case UNIFORM:
+                return new UniformSource(numPlayers, seed);
+            case SKEWED:
+                return new SkewedSource(numPlayers, seed);
+            case ADVERSARIAL:
+                return new AdversarialSource(numPlayers, seed);
+            default:
+                throw new IllegalStateException("Unhandled distribution " + distribution);
+        }
+    }
+
+    // cards must be asked for in order 0, 1, 2 ...
+    private interface CardSource {
+        int cardAt(int index);
+    }
+
+    private static final class UniformSource implements CardSource {
+        private final SplittableRandom random;
+        private final int maxDenomination;
+
+        UniformSource(int numPlayers, long seed) {
+            this.random = new SplittableRandom(seed);
+            this.maxDenomination = numPlayers;
+        }
+
+        @Override
+        public int cardAt(int index) {
+            return 1 + random.nextInt(maxDenomination);
+        }
+    }
+
+    private static final class SkewedSource implements CardSource {
+        private final SplittableRandom random;
+        private final int maxDenomination;
+        private final double logRange;
+
+        // log uniform draw, gives denomination k a weight of roughly 1/k without a lookup table
+        SkewedSource(int numPlayers, long seed) {
+            this.random = new SplittableRandom(seed);
+            this.maxDenomination = numPlayers;
+            this.logRange = Math.log(numPlayers + 1.0);
+        }
+
+        @Override
+        public int cardAt(int index) {
+            int card = (int) Math.exp(random.nextDouble() * logRange);
+            return Math.min(Math.max(card, 1), maxDenomination);
+        }
+    }
+
+    // card for player p in round r is p shifted by shifts[r], same for deck cards with shifts[4 + r]
+    // each shift is a permutation of 1..n so every denomination appears exactly 8 times,
+    // with more than 8 players none of the shifts are zero so nobody is dealt their own number
+    private static final class AdversarialSource implements CardSource {
+        private final int numPlayers;
+        private final int[] shifts;
+
+        AdversarialSource(int numPlayers, long seed) {
+            this.numPlayers = numPlayers;
+            this.shifts = new int[8];
+            SplittableRandom random = new SplittableRandom(seed);
+
+            if (numPlayers > 8) {
+                // eight distinct non zero shifts, keeps the four hand cards different from each other
+                for (int r = 0; r < 8; r++) {
+                    int shift;
+                    boolean taken;
+                    do {
+                        shift = 1 + random.nextInt(numPlayers - 1);
+                        taken = false;
+                        for (int j = 0; j < r; j++) {
+                            taken |= shifts[j] == shift;
+                        }
+                    } while (taken);
+                    shifts[r] = shift;
+                }
+            } else {
+                // too few players to avoid every collision, this still stops a winning deal when n > 1
+                for (int r = 0; r < 8; r++) {
+                    shifts[r] = r + 1;
+                }
+            }
+        }
+
+        @Override
+        public int cardAt(int index) {
+            int round = index / numPlayers;
+            int seat = index % numPlayers; // player for hand rounds, deck for the rest
+            return (seat + shifts[round]) % numPlayers + 1;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 4) {
+            System.out.println("Usage: java PackGenerator <players> <output file> [uniform|skewed|adversarial] [seed]");
+            return;
+        }
+
+        try {
+            int players = Integer.parseInt(args[0]);
+            Distribution distribution = args.length > 2
+                    ? Distribution.valueOf(args[2].toUpperCase()) : Distribution.UNIFORM;
+            long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+
+            PackGenerator generator = new PackGenerator(players, distribution, seed);
+            long start = System.nanoTime();
+            generator.writeToFile(args[1]);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.println("Wrote " + generator.getPackSize() + " cards to " + args[1] + " in " + elapsedMs + " ms");
+        } catch (NumberFormatException e) {
+            System.out.println("Error: Invalid number: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Error writing pack file: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+// the loops that run over a whole parsed pack: range check and denomination counts
+// VectorPackKernels (NotNeede/vector, built separately) does the range check in wide lanes with the
+// incubating Vector API, it is used when it was compiled in and the module is there at runtime
+// (--add-modules jdk.incubator.vector), otherwise this plain version runs. both give exactly the same answers
+public class PackKernels {
+    private static final PackKernels SCALAR = new PackKernels();
+    private static final PackKernels BEST = load();
+
+    PackKernels() {
+    }
+
+    public static PackKernels get() {
+        return BEST;
+    }
+
+    public static PackKernels scalar() {
+        return SCALAR;
+    }
+
+    // referenced by name so this class still loads on a JVM without the module
+    private static PackKernels load() {
+        try {
+            return (PackKernels) Class.forName("VectorPackKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+
+    public String name() {
+        return "scalar";
+    }
+
+    // {min, max} of cards[0..length), {0, 0} for no cards
+    public int[] range(int[] cards, int length) {
+        if (length == 0) {
+            return new int[]{0, 0};
+        }
+        int min = cards[0];
+        int max = cards[0];
+        for (int i = 1; i < length; i++) {
+            min = Math.min(min, cards[i]);
+            max = Math.max(max, cards[i]);
+        }
+        return new int[]{min, max};
+    }
+
+    // adds one to counts[card] for every card, callers check the range first
+    public void count(int[] cards, int length, int[] counts) {
+        for (int i = 0; i < length; i++) {
+            counts[cards[i]]++;
+        }
+    }
+}
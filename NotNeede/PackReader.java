@@ -0,0 +1,179 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// reads pack files into an int[] it keeps between calls, for games played back to back
+// the byte buffer, the card array and the winnable counts only ever grow, so after the biggest
+// pack has been seen reading another one allocates next to nothing
+// the negative check and the winnable counts run over the parsed array through PackKernels
+public class PackReader {
+    private static final int MAX_DENSE_DENOMINATION = 1 << 20;
+    private static final int READ_CHUNK = 1 << 20;
+
+    private ByteBuffer bytes = ByteBuffer.allocate(4096);
+    private int[] cards = new int[64];
+    private int size;
+    private int[] counts = new int[64]; // kept all zero between isWinnable calls
+
+    public boolean read(String filename, int numPlayers) {
+        return read(filename) && checkSize(size, numPlayers);
+    }
+
+    // 8n cards for n players, the one check that depends on the game rather than the file
+    static boolean checkSize(int size, int numPlayers) {
+        int expectedCards = 8 * numPlayers;
+        if (size != expectedCards) {
+            System.out.println("Error: Pack must contain exactly " + expectedCards +
+                             " cards for " + numPlayers + " players. Found: " + size + " cards.");
+            return false;
+        }
+        return true;
+    }
+
+    // parses and checks every card, whatever the number of players
+    public boolean read(String filename) {
+        size = 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(filename))) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                System.out.println("Error reading pack file: " + filename + " is too big");
+                return false;
+            }
+            if (bytes.capacity() < length) {
+                bytes = ByteBuffer.allocate((int) length);
+            }
+            // a read into a heap buffer goes through a temporary direct buffer as big as what is asked
+            // for, and the JDK keeps that cached on the thread, so read a chunk at a time
+            bytes.clear();
+            for (int end = 0; end < length; end = bytes.position()) {
+                bytes.limit((int) Math.min(length, (long) end + READ_CHUNK));
+                if (channel.read(bytes) < 0) {
+                    break;
+                }
+            }
+            bytes.flip();
+        } catch (IOException e) {
+            System.out.println("Error reading pack file: " + e.getMessage());
+            return false;
+        }
+
+        return parse();
+    }
+
+    // one denomination per line (\n, \r\n or \r like readLine), blank lines skipped, surrounding
+    // whitespace ignored like String.trim
+    private boolean parse() {
+        byte[] data = bytes.array();
+        int end = bytes.limit();
+        int pos = 0;
+        while (pos < end) {
+            int lineEnd = pos;
+            while (lineEnd < end && data[lineEnd] != '\n' && data[lineEnd] != '\r') {
+                lineEnd++;
+            }
+            int from = pos;
+            int to = lineEnd;
+            pos = lineEnd + 1;
+            while (from < to && (data[from] & 0xFF) <= ' ') from++;
+            while (to > from && (data[to - 1] & 0xFF) <= ' ') to--;
+            if (from == to) continue;
+
+            long value = parseLine(data, from, to);
+            if (value == Long.MIN_VALUE) {
+                // a negative card further up is still the first problem in the file
+                if (!checkNonNegative()) {
+                    return false;
+                }
+                System.out.println("Error: Invalid number format in pack file: "
+                                 + new String(data, from, to - from, StandardCharsets.UTF_8));
+                return false;
+            }
+            if (size == cards.length) {
+                cards = Arrays.copyOf(cards, size * 2);
+            }
+            cards[size++] = (int) value;
+        }
+        return checkNonNegative();
+    }
+
+    // one wide pass over everything parsed, the slow search only runs when there is a bad card
+    private boolean checkNonNegative() {
+        if (PackKernels.get().range(cards, size)[0] >= 0) {
+            return true;
+        }
+        for (int i = 0; i < size; i++) {
+            if (cards[i] < 0) {
+                System.out.println("Error: Card denominations must be non-negative. Found: " + cards[i]);
+                break;
+            }
+        }
+        return false;
+    }
+
+    // Long.MIN_VALUE when Integer.parseInt would have thrown
+    private static long parseLine(byte[] data, int from, int to) {
+        boolean negative = false;
+        if (data[from] == '-' || data[from] == '+') {
+            negative = data[from] == '-';
+            from++;
+        }
+        if (from == to) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return Long.MIN_VALUE;
+            }
+        }
+        if (!negative && value > Integer.MAX_VALUE) {
+            return Long.MIN_VALUE;
+        }
+        return negative ? -value : value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int index) {
+        return cards[index];
+    }
+
+    // {min, max} of the cards just read
+    public int[] range() {
+        return PackKernels.get().range(cards, size);
+    }
+
+    // copy of the cards just read
+    public int[] toArray() {
+        return Arrays.copyOf(cards, size);
+    }
+
+    // same answer as PackAnalysis.isWinnable, counting into the kept array when denominations are small
+    public boolean isWinnable() {
+        PackKernels kernels = PackKernels.get();
+        int max = kernels.range(cards, size)[1];
+        if (max >= MAX_DENSE_DENOMINATION) {
+            return new PackAnalysis(toArray()).isWinnable();
+        }
+        if (counts.length <= max) {
+            counts = new int[max + 1];
+        }
+        kernels.count(cards, size, counts);
+        boolean winnable = false;
+        for (int value = 0; value <= max; value++) {
+            winnable |= counts[value] >= 4;
+        }
+        Arrays.fill(counts, 0, max + 1, 0);
+        return winnable;
+    }
+}
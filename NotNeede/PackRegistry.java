@@ -0,0 +1,164 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// parses each pack file once for all the games using it at the same time, see SharedPack
+// a pack is keyed by its real path, size, modified time and file key, so a pack file that is
+// rewritten gets parsed again. the first game to ask parses it while any others asking for the same
+// file wait, and the pack is dropped once every game that acquired it has released it
+// mapped registries keep the cards in a deleted temp file instead of on the heap, unmapped on the last release
+public class PackRegistry {
+    private static final PackRegistry DEFAULT = new PackRegistry(false);
+    private static final PackRegistry MAPPED = new PackRegistry(true);
+
+    private final boolean mapped;
+    private final Map<Object, Loading> packs = new HashMap<>(); // guarded by this
+    private int parses;
+
+    // a pack being parsed or parsed, lock it to wait for the parse
+    private static final class Loading {
+        SharedPack pack;
+        boolean failed;
+    }
+
+    public PackRegistry(boolean mapped) {
+        this.mapped = mapped;
+    }
+
+    public static PackRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public static PackRegistry getMapped() {
+        return MAPPED;
+    }
+
+    // null when the file cant be read or a card is bad, the reason has been printed
+    public SharedPack acquire(String filename) {
+        while (true) {
+            Object key;
+            try {
+                Path path = Paths.get(filename).toRealPath();
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                key = Arrays.asList(path, attributes.size(), attributes.lastModifiedTime(), attributes.fileKey());
+            } catch (IOException e) {
+                System.out.println("Error reading pack file: " + e.getMessage());
+                return null;
+            }
+
+            Loading loading;
+            boolean parseHere;
+            synchronized (this) {
+                loading = packs.get(key);
+                parseHere = loading == null;
+                if (parseHere) {
+                    loading = new Loading();
+                    packs.put(key, loading);
+                }
+            }
+            synchronized (loading) {
+                if (parseHere) {
+                    loading.pack = parse(filename, key);
+                    loading.failed = loading.pack == null;
+                }
+                if (loading.failed) {
+                    synchronized (this) {
+                        packs.remove(key, loading);
+                    }
+                    if (parseHere) {
+                        return null;
+                    }
+                    continue; // parse it again here so this game prints its own error
+                }
+            }
+            synchronized (this) {
+                // the last holder may have let go between the parse and here
+                if (packs.get(key) == loading) {
+                    loading.pack.references++;
+                    return loading.pack;
+                }
+            }
+        }
+    }
+
+    synchronized void release(SharedPack pack) {
+        if (pack.references <= 0) {
+            throw new IllegalStateException("Pack released more often than it was acquired");
+        }
+        if (--pack.references > 0) {
+            return;
+        }
+        Loading loading = packs.get(pack.key);
+        if (loading != null && loading.pack == pack) {
+            packs.remove(pack.key);
+        }
+        // acquire only hands out the pack in the map, so nobody can pick this one up again
+        pack.unmap();
+    }
+
+    // packs parsed and still held, for tests and benchmarks
+    public synchronized int size() {
+        return packs.size();
+    }
+
+    synchronized int getParses() {
+        return parses;
+    }
+
+    private SharedPack parse(String filename, Object key) {
+        PackReader reader = new PackReader();
+        if (!reader.read(filename)) {
+            return null;
+        }
+        synchronized (this) {
+            parses++;
+        }
+        int size = reader.size();
+        int width = SharedPack.widthFor(reader.range()[1]);
+        if ((long) size * width > Integer.MAX_VALUE) {
+            System.out.println("Error reading pack file: " + filename + " has too many cards to share");
+            return null;
+        }
+        ByteBuffer cards;
+        try {
+            cards = mapped ? mapFile(size * width) : ByteBuffer.allocate(size * width);
+        } catch (IOException e) {
+            System.out.println("Error mapping pack file: " + e.getMessage());
+            return null;
+        }
+        for (int i = 0; i < size; i++) {
+            int card = reader.get(i);
+            if (width == 1) {
+                cards.put(i, (byte) card);
+            } else if (width == 2) {
+                cards.putShort(i * 2, (short) card);
+            } else {
+                cards.putInt(i * 4, card);
+            }
+        }
+        return new SharedPack(this, key, cards, width, size, reader.isWinnable(), mapped);
+    }
+
+    // the file is gone as soon as it is mapped, the mapping lives until the last game releases the pack
+    private static MappedByteBuffer mapFile(int bytes) throws IOException {
+        Path file = Files.createTempFile("pack", ".cards");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(bytes, 1));
+        } finally {
+            try {
+                Files.delete(file);
+            } catch (IOException e) {
+                file.toFile().deleteOnExit(); // windows wont delete a mapped file
+            }
+        }
+    }
+}
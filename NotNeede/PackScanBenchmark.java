@@ -0,0 +1,63 @@
+import java.util.SplittableRandom;
+
+// range check and histogram over a parsed pack, plain loops against PackKernels.get()
+// usage: java -Xmx2g --add-modules jdk.incubator.vector PackScanBenchmark <cards> [max denomination] [runs]
+// e.g. 100000000 for the 100M card pack, without the module both columns are the scalar code
+public class PackScanBenchmark {
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java PackScanBenchmark <cards> [max denomination] [runs]");
+            return;
+        }
+        int cards = Integer.parseInt(args[0]);
+        int maxDenomination = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(1, cards / 8);
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        int[] pack = new int[cards];
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < cards; i++) {
+            pack[i] = 1 + random.nextInt(maxDenomination);
+        }
+        int[] counts = new int[maxDenomination + 1];
+
+        PackKernels scalar = PackKernels.scalar();
+        PackKernels best = PackKernels.get();
+        System.out.println(cards + " cards, denominations 1.." + maxDenomination + ", best kernels: " + best.name());
+
+        long[] scalarTimes = time(scalar, pack, counts, runs);
+        long[] bestTimes = time(best, pack, counts, runs);
+        report("range", scalarTimes[0], bestTimes[0]);
+        report("count", scalarTimes[1], bestTimes[1]);
+    }
+
+    // best of runs for {range, count} in nanos
+    private static long[] time(PackKernels kernels, int[] pack, int[] counts, int runs) {
+        long range = Long.MAX_VALUE;
+        long count = Long.MAX_VALUE;
+        long sink = 0;
+        for (int run = 0; run < runs + 1; run++) { // first run is warm up
+            long start = System.nanoTime();
+            sink += kernels.range(pack, pack.length)[1];
+            long middle = System.nanoTime();
+            java.util.Arrays.fill(counts, 0);
+            long countStart = System.nanoTime();
+            kernels.count(pack, pack.length, counts);
+            long end = System.nanoTime();
+            sink += counts[1];
+            if (run > 0) {
+                range = Math.min(range, middle - start);
+                count = Math.min(count, end - countStart);
+            }
+        }
+        if (sink == 42) {
+            System.out.println(); // keeps the results live
+        }
+        return new long[]{range, count};
+    }
+
+    private static void report(String label, long scalarNanos, long bestNanos) {
+        System.out.printf("%-6s scalar %8.1f ms   best %8.1f ms   %.2fx%n", label,
+                scalarNanos / 1e6, bestNanos / 1e6, (double) scalarNanos / bestNanos);
+    }
+}
@@ -1,217 +1,436 @@
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
-
-public class Player extends Thread {
-    private final int playerNumber;
-    private final List<Card> hand;
-    private final CardDeck drawDeck;
-    private final CardDeck discardDeck;
-    private final ReentrantLock handLock;
-    private final AtomicInteger winningPlayer;
-    private PrintWriter outputWriter;
-    private final String outputFilename;
-    
-    public Player(int playerNumber, CardDeck drawDeck, CardDeck discardDeck, AtomicInteger winningPlayer) {
-        this.playerNumber = playerNumber;
-        this.hand = new ArrayList<>(4);
-        this.drawDeck = drawDeck;
-        this.discardDeck = discardDeck;
-        this.handLock = new ReentrantLock();
-        this.winningPlayer = winningPlayer;
-        this.outputFilename = "player" + playerNumber + "_output.txt";
-        
-        try {
-            this.outputWriter = new PrintWriter(new FileWriter(outputFilename));
-        } catch (IOException e) {
-            System.err.println("fai creating output file for player " + playerNumber + ": " + e.getMessage());
-        }
-    }
-
-    public void addCardToHand(Card card) {
-        handLock.lock();
-        try {
-            if (hand.size() < 4) {
-                hand.add(card);
-            }
-        } finally {
-            handLock.unlock();
-        }
-    }
-
-    public boolean hasWinningHand() {
-        handLock.lock();
-        try {
-            if (hand.size() != 4) return false;
-            
-            int firstCardValue = hand.get(0).getDenomination();
-            for (Card card : hand) {
-                if (card.getDenomination() != firstCardValue) {
-                    return false;
-                }
-            }
-            return true;
-        } finally {
-            handLock.unlock();
-        }
-    }
-
-    public String getHandAsString() {
-        handLock.lock();
-        try {
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < hand.size(); i++) {
-                if (i > 0) sb.append(" ");
-                sb.append(hand.get(i).getDenomination());
-            }
-            return sb.toString();
-        } finally {
-            handLock.unlock();
-        }
-    }
-
-    public void writeInitialHand() {
-        if (outputWriter != null) {
-            outputWriter.println("player " + playerNumber + " initial hand " + getHandAsString());
-            outputWriter.flush();
-        }
-    }
-
-    private int selectCardToDiscard() {
-        handLock.lock();
-        try {
-            // try to get rid of crap cards first
-            for (int i = 0; i < hand.size(); i++) {
-                if (hand.get(i).getDenomination() != playerNumber) {
-                    return i;
-                }
-            }
-            
-            // if no rubbish cards can return any
-            return 0;
-        } finally {
-            handLock.unlock();
-        }
-    }
-
-    private boolean performTurn() {
-        Card drawnCard = drawDeck.drawCard();
-        // if deck's empty can't go (shouldn't happen though)
-        if (drawnCard == null) {
-            return false;
-        }
-        
-        handLock.lock();
-        try {
-            if (outputWriter != null) {
-                outputWriter.println("player " + playerNumber + " draws a " + 
-                                   drawnCard.getDenomination() + " from deck " + drawDeck.getDeckNumber());
-                outputWriter.flush();
-            }
-            
-            hand.add(drawnCard);
-            
-            int discardIndex = selectCardToDiscard();
-            Card discardedCard = hand.remove(discardIndex);
-            
-            discardDeck.discardCard(discardedCard);
-            
-            // log for debugging just incase yk
-            if (outputWriter != null) {
-                outputWriter.println("player " + playerNumber + " discards a " + 
-                                   discardedCard.getDenomination() + " to deck " + discardDeck.getDeckNumber());
-                outputWriter.println("player " + playerNumber + " current hand is " + getHandAsString());
-                outputWriter.flush();
-            }
-            
-            return true;
-        } finally {
-            handLock.unlock();
-        }
-    }
-
-    private void declareVictory() {
-        if (winningPlayer.compareAndSet(0, playerNumber)) {
-            System.out.println("player " + playerNumber + " wins");
-            
-            if (outputWriter != null) {
-                outputWriter.println("player " + playerNumber + " wins");
-                outputWriter.println("player " + playerNumber + " exits");
-                outputWriter.println("player " + playerNumber + " final hand: " + getHandAsString());
-                outputWriter.flush();
-            }
-        }
-    }
-
-    private void handleGameEnd(int winner) {
-        if (outputWriter != null && winner != playerNumber) {
-            outputWriter.println("player " + winner + " has informed player " + 
-                               playerNumber + " that player " + winner + " has won");
-            outputWriter.println("player " + playerNumber + " exits");
-            outputWriter.println("player " + playerNumber + " final hand: " + getHandAsString());
-            outputWriter.flush();
-        }
-    }
-
-    @Override
-    public void run() {
-        writeInitialHand();
-        
-        // check if won already (does say in spec not do but hey)
-        if (hasWinningHand()) {
-            declareVictory();
-            closeOutputFile();
-            return;
-        }
-        
-        while (winningPlayer.get() == 0 && !Thread.currentThread().isInterrupted()) {
-            try {
-                if (!performTurn()) {
-                    // if unable to draw (probably due to lock) then wait and retry
-                    Thread.sleep(10);
-                    continue;
-                }
-                
-                if (hasWinningHand()) {
-                    declareVictory();
-                    break;
-                }
-                
-                // thread saftey, maybe someone else won
-                int winner = winningPlayer.get();
-                if (winner != 0 && winner != playerNumber) {
-                    handleGameEnd(winner);
-                    break;
-                }
-                
-                Thread.sleep(1);
-                
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        
-        // check again incase exit due to an interruption
-        int winner = winningPlayer.get();
-        if (winner != 0 && winner != playerNumber) {
-            handleGameEnd(winner);
-        }
-        
-        closeOutputFile();
-    }
-
-    private void closeOutputFile() {
-        if (outputWriter != null) {
-            outputWriter.close();
-        }
-    }
-
-    public int getPlayerNumber() {
-        return playerNumber;
-    }
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Player extends Thread {
+    // decides between competing wins when players dont share one winningPlayer (DistributedCardGame)
+    // claim blocks until the game has a winner, sets winningPlayer to it and returns it
+    interface WinArbiter {
+        int claim(int playerNumber);
+    }
+
+    // fixed log text encoded once, lines are put straight into the output buffer so a turn allocates nothing
+    private static final byte[] PLAYER = ascii("player ");
+    private static final byte[] INITIAL_HAND = ascii("initial hand ");
+    private static final byte[] DRAWS_A = ascii("draws a ");
+    private static final byte[] FROM_DECK = ascii(" from deck ");
+    private static final byte[] DISCARDS_A = ascii("discards a ");
+    private static final byte[] TO_DECK = ascii(" to deck ");
+    private static final byte[] CURRENT_HAND = ascii("current hand is ");
+    private static final byte[] WINS = ascii("wins");
+    private static final byte[] EXITS = ascii("exits");
+    private static final byte[] FINAL_HAND = ascii("final hand: ");
+    private static final byte[] HAS_INFORMED = ascii(" has informed ");
+    private static final byte[] THAT_PLAYER = ascii("that player ");
+    private static final byte[] HAS_WON = ascii(" has won");
+    private static final byte[] SPACE = ascii(" ");
+
+    private final int playerNumber;
+    // only the player itself changes its hand once the game starts, so no lock on the hot path
+    // anyone else reads through the handVersion seqlock (odd while a change is half done)
+    private final Card[] hand;
+    private final int[] handValues; // denominations of hand for the discard strategy
+    private int handSize;
+    private volatile int handVersion;
+    private DiscardStrategy discardStrategy;
+    private BackoffPolicy backoff;
+    private CardDeck drawDeck;     // only changed by rearm between games
+    private CardDeck discardDeck;
+    private final AtomicInteger winningPlayer;
+    private OutputFile outputWriter;
+    private final String outputFilename;
+    private final byte[] linePrefix; // "player <n> "
+    private final boolean resumed;
+    private TurnGate turnGate;
+    private GameEventPublisher events;
+    private WinArbiter winArbiter; // null means the winningPlayer CAS decides
+    private TurnLatency latency;   // only set for --run-summary
+    private volatile int turnCount;
+    volatile boolean inTurn; // read by TurnGate.quiesce
+    private int drawnDenomination;    // last turn's cards, published once the turn is over
+    private int discardedDenomination;
+    
+    public Player(int playerNumber, CardDeck drawDeck, CardDeck discardDeck, AtomicInteger winningPlayer) {
+        this(playerNumber, drawDeck, discardDeck, winningPlayer, false);
+    }
+
+    // resumed players append to their existing output instead of starting a new file
+    public Player(int playerNumber, CardDeck drawDeck, CardDeck discardDeck, AtomicInteger winningPlayer,
+                  boolean resumed) {
+        this.playerNumber = playerNumber;
+        this.hand = new Card[5];
+        this.handValues = new int[5];
+        this.discardStrategy = new FirstNonPreferredStrategy();
+        this.backoff = new BackoffPolicy();
+        this.drawDeck = drawDeck;
+        this.discardDeck = discardDeck;
+        this.winningPlayer = winningPlayer;
+        this.outputFilename = "player" + playerNumber + "_output.txt";
+        this.linePrefix = ascii("player " + playerNumber + " ");
+        this.resumed = resumed;
+        // file is only opened when there is something to write, through a bounded pool
+        this.outputWriter = OutputFilePool.getDefault().openFile(outputFilename, resumed);
+    }
+
+    // dealing happens before the thread starts so this is still single writer
+    public void addCardToHand(Card card) {
+        if (handSize < 4) {
+            beginHandWrite();
+            appendToHand(card);
+            endHandWrite();
+        }
+    }
+
+    public boolean hasWinningHand() {
+        while (true) {
+            int version = beginHandRead();
+            boolean winning = handSize == 4;
+            for (int i = 1; winning && i < 4; i++) {
+                winning = handValues[i] == handValues[0];
+            }
+            if (validateHandRead(version)) {
+                return winning;
+            }
+        }
+    }
+
+    public String getHandAsString() {
+        int[] values = new int[5];
+        int size = copyHand(values);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(" ");
+            sb.append(values[i]);
+        }
+        return sb.toString();
+    }
+
+    public int[] getHandDenominations() {
+        int[] values = new int[5];
+        int size = copyHand(values);
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    // consistent copy of the hand into dst (room for 5), returns how many cards, never blocks the player
+    public int copyHand(int[] dst) {
+        while (true) {
+            int version = beginHandRead();
+            int size = Math.min(handSize, dst.length);
+            System.arraycopy(handValues, 0, dst, 0, size);
+            if (validateHandRead(version)) {
+                return size;
+            }
+        }
+    }
+
+    private int beginHandRead() {
+        int version = handVersion;
+        while ((version & 1) != 0) {
+            Thread.onSpinWait();
+            version = handVersion;
+        }
+        return version;
+    }
+
+    private boolean validateHandRead(int version) {
+        VarHandle.loadLoadFence();
+        return handVersion == version;
+    }
+
+    private void beginHandWrite() {
+        handVersion = handVersion + 1;
+        VarHandle.storeStoreFence();
+    }
+
+    private void endHandWrite() {
+        handVersion = handVersion + 1;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // starts a "player <n> ..." line
+    private OutputFile line() {
+        return outputWriter.put(linePrefix);
+    }
+
+    // owner thread only, same text as getHandAsString without building it
+    private void putHand() {
+        for (int i = 0; i < handSize; i++) {
+            if (i > 0) outputWriter.put(SPACE);
+            outputWriter.put(handValues[i]);
+        }
+    }
+
+    private void writeExitAndFinalHand() {
+        line().put(EXITS).endLine();
+        line().put(FINAL_HAND);
+        putHand();
+        outputWriter.endLine();
+    }
+
+    public void writeInitialHand() {
+        if (outputWriter != null) {
+            line().put(INITIAL_HAND);
+            putHand();
+            outputWriter.endLine();
+            outputWriter.flush();
+        }
+    }
+
+    // owner thread only, sees the 5 card hand mid turn
+    private int selectCardToDiscard() {
+        return discardStrategy.selectCardToDiscard(handValues, handSize, playerNumber);
+    }
+
+    private void appendToHand(Card card) {
+        handValues[handSize] = card.getDenomination();
+        hand[handSize++] = card;
+    }
+
+    private Card removeFromHand(int index) {
+        Card removed = hand[index];
+        int moved = handSize - index - 1;
+        System.arraycopy(hand, index + 1, hand, index, moved);
+        System.arraycopy(handValues, index + 1, handValues, index, moved);
+        hand[--handSize] = null;
+        return removed;
+    }
+
+    private boolean performTurn() {
+        Card drawnCard = drawDeck.drawCard();
+        // if deck's empty can't go (shouldn't happen though)
+        if (drawnCard == null) {
+            return false;
+        }
+        int turn = turnCount + 1;
+        
+        if (outputWriter != null) {
+            line().put(DRAWS_A).put(drawnCard.getDenomination()).put(FROM_DECK).put(drawDeck.getDeckNumber()).endLine();
+            // flushed once the turn is over, one pool write per turn
+        }
+        
+        // readers never see the 5 card hand in the middle
+        beginHandWrite();
+        appendToHand(drawnCard);
+        int discardIndex = selectCardToDiscard();
+        Card discardedCard = removeFromHand(discardIndex);
+        endHandWrite();
+        
+        discardDeck.discardCard(discardedCard);
+        turnCount = turn;
+        drawnDenomination = drawnCard.getDenomination();
+        discardedDenomination = discardedCard.getDenomination();
+        
+        // log for debugging just incase yk
+        if (outputWriter != null) {
+            line().put(DISCARDS_A).put(discardedCard.getDenomination()).put(TO_DECK)
+                    .put(discardDeck.getDeckNumber()).endLine();
+            line().put(CURRENT_HAND);
+            putHand();
+            outputWriter.endLine();
+        }
+        
+        return true;
+    }
+
+    // outside the turn gate, a blocking subscriber would otherwise hold up a snapshot waiting for
+    // this player to finish its turn
+    private void publishTurn() {
+        if (events != null) {
+            events.publish(GameEvent.Type.DRAW, playerNumber, drawDeck.getDeckNumber(), drawnDenomination, turnCount);
+            events.publish(GameEvent.Type.DISCARD, playerNumber, discardDeck.getDeckNumber(),
+                    discardedDenomination, turnCount);
+        }
+    }
+
+    // a player whose claim loses writes the informed lines like everyone else once it stops
+    private void declareVictory() {
+        boolean confirmed = winArbiter != null ? winArbiter.claim(playerNumber) == playerNumber
+                : winningPlayer.compareAndSet(0, playerNumber);
+        if (confirmed) {
+            System.out.println("player " + playerNumber + " wins");
+            if (events != null) {
+                events.publish(GameEvent.Type.WIN, playerNumber, 0, 0, turnCount);
+            }
+            
+            if (outputWriter != null) {
+                line().put(WINS).endLine();
+                writeExitAndFinalHand();
+                outputWriter.flush();
+            }
+        }
+    }
+
+    private void handleGameEnd(int winner) {
+        if (outputWriter != null && winner != playerNumber) {
+            outputWriter.put(PLAYER).put(winner).put(HAS_INFORMED);
+            line().put(THAT_PLAYER).put(winner).put(HAS_WON).endLine();
+            writeExitAndFinalHand();
+            outputWriter.flush();
+        }
+    }
+
+    // game stopped without a winner
+    private void handleAbort() {
+        if (outputWriter != null) {
+            writeExitAndFinalHand();
+            outputWriter.flush();
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!resumed) {
+            writeInitialHand();
+        }
+        
+        // check if won already (does say in spec not do but hey)
+        if (hasWinningHand()) {
+            declareVictory();
+            finish();
+            return;
+        }
+        
+        while (winningPlayer.get() == 0 && !Thread.currentThread().isInterrupted()) {
+            try {
+                if (turnGate != null && !turnGate.enterTurn(this)) {
+                    break;
+                }
+                boolean tookTurn;
+                boolean won;
+                try {
+                    long start = latency != null ? System.nanoTime() : 0;
+                    tookTurn = performTurn();
+                    if (tookTurn && latency != null) {
+                        latency.record(playerNumber, System.nanoTime() - start);
+                    }
+                    won = tookTurn && hasWinningHand();
+                } finally {
+                    if (turnGate != null) {
+                        turnGate.exitTurn(this);
+                    }
+                }
+
+                if (!tookTurn) {
+                    // neighbour hasnt discarded yet, back off a bit more each time
+                    backoff.idle();
+                    continue;
+                }
+                backoff.reset();
+                // disk and gzip work happen out here too, a snapshot only waits for the in memory part
+                if (outputWriter != null) {
+                    outputWriter.flush();
+                }
+                publishTurn();
+                
+                if (won) {
+                    declareVictory();
+                    break;
+                }
+                
+                // thread saftey, maybe someone else won
+                if (winningPlayer.get() != 0) {
+                    break;
+                }
+                
+                Thread.sleep(1);
+                
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        
+        finish();
+    }
+
+    private void finish() {
+        // check again incase exit due to an interruption
+        int winner = winningPlayer.get();
+        if (winner == CardGame.ABORTED) {
+            handleAbort();
+        } else if (winner != 0 && winner != playerNumber) {
+            handleGameEnd(winner);
+        }
+        
+        closeOutputFile();
+    }
+
+    // last thing a player does whichever way it stopped
+    private void closeOutputFile() {
+        if (events != null) {
+            events.publish(GameEvent.Type.EXIT, playerNumber, 0, 0, turnCount);
+        }
+        if (outputWriter != null) {
+            outputWriter.close();
+        }
+    }
+
+    public int getPlayerNumber() {
+        return playerNumber;
+    }
+
+    public int getTurnCount() {
+        return turnCount;
+    }
+
+    void setTurnCount(int turnCount) {
+        this.turnCount = turnCount;
+    }
+
+    public void setDiscardStrategy(DiscardStrategy discardStrategy) {
+        this.discardStrategy = discardStrategy;
+    }
+
+    DiscardStrategy getDiscardStrategy() {
+        return discardStrategy;
+    }
+
+    public BackoffPolicy getBackoff() {
+        return backoff;
+    }
+
+    public void setBackoff(BackoffPolicy backoff) {
+        this.backoff = backoff;
+    }
+
+    // empties the hand for the next game of a reused CardGame, the arrays and output buffer are kept
+    // only called while the player isnt running, the game start barrier publishes it to the runner
+    void rearm(CardDeck drawDeck, CardDeck discardDeck) {
+        this.drawDeck = drawDeck;
+        this.discardDeck = discardDeck;
+        beginHandWrite();
+        Arrays.fill(hand, null);
+        handSize = 0;
+        endHandWrite();
+        turnCount = 0;
+        backoff.reset();
+        if (outputWriter != null) {
+            outputWriter.reopen();
+        }
+    }
+
+    // must be called before the player writes anything
+    void setOutputPool(OutputFilePool pool) {
+        this.outputWriter = pool.openFile(outputFilename, resumed);
+    }
+
+    void setTurnGate(TurnGate turnGate) {
+        this.turnGate = turnGate;
+    }
+
+    public void setEventPublisher(GameEventPublisher events) {
+        this.events = events;
+    }
+
+    void setWinArbiter(WinArbiter winArbiter) {
+        this.winArbiter = winArbiter;
+    }
+
+    void setTurnLatency(TurnLatency latency) {
+        this.latency = latency;
+    }
 }
\ No newline at end of file
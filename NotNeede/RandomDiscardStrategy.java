@@ -0,0 +1,40 @@
+// throws away a random card that isnt the players own number, seeded so runs repeat
+// only ever called from the owning players thread so the state isnt shared
+public final class RandomDiscardStrategy implements DiscardStrategy {
+    private long state;
+
+    public RandomDiscardStrategy(long seed) {
+        // xorshift gets stuck on zero
+        this.state = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+    }
+
+    @Override
+    public int selectCardToDiscard(int[] hand, int handSize, int playerNumber) {
+        int candidates = 0;
+        for (int i = 0; i < handSize; i++) {
+            if (hand[i] != playerNumber) {
+                candidates++;
+            }
+        }
+        if (candidates == 0) {
+            return nextInt(handSize);
+        }
+
+        int pick = nextInt(candidates);
+        for (int i = 0; i < handSize; i++) {
+            if (hand[i] != playerNumber && pick-- == 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private int nextInt(int bound) {
+        long x = state;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        state = x;
+        return (int) ((x >>> 33) % bound);
+    }
+}
@@ -0,0 +1,102 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// stand in for a deck that lives in another JVM, discards are shipped over a socket
+// a sender thread drains everything queued since its last write so busy rings send big batches
+// wire format per batch: int count followed by count int denominations
+public class RemoteCardDeck extends CardDeck {
+    static final int MAX_BATCH = 4096;
+
+    private final SocketChannel channel;
+    private final LinkedBlockingQueue<Card> outbox;
+    private final Thread sender;
+    private volatile boolean closing;
+    private volatile IOException failure;
+
+    public RemoteCardDeck(int deckNumber, SocketChannel channel) {
+        super(deckNumber);
+        this.channel = channel;
+        this.outbox = new LinkedBlockingQueue<>();
+        this.sender = new Thread(this::sendLoop, "deck" + deckNumber + "-sender");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    @Override
+    public Card drawCard() {
+        // nobody on this node draws from a remote deck
+        return null;
+    }
+
+    @Override
+    public void discardCard(Card card) {
+        outbox.offer(card);
+    }
+
+    @Override
+    public void addCard(Card card) {
+        outbox.offer(card);
+    }
+
+    // cards still waiting to go over the link
+    @Override
+    public int size() {
+        return outbox.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return outbox.isEmpty();
+    }
+
+    private void sendLoop() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4 + 4 * MAX_BATCH);
+        List<Card> batch = new ArrayList<>(MAX_BATCH);
+
+        try {
+            while (!closing || !outbox.isEmpty()) {
+                Card first = outbox.poll(10, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                outbox.drainTo(batch, MAX_BATCH - 1);
+
+                buffer.clear();
+                buffer.putInt(batch.size());
+                for (Card card : batch) {
+                    buffer.putInt(card.getDenomination());
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                batch.clear();
+            }
+            channel.shutdownOutput();
+        } catch (IOException e) {
+            failure = e;
+            System.err.println("Error sending to deck " + getDeckNumber() + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // sends whatever is still queued then tells the other side no more cards are coming
+    public void close() throws IOException {
+        closing = true;
+        try {
+            sender.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// on disk store of finished games so batch jobs dont replay the same pack and settings over and over
+// an entry is a directory named after sha-256(pack file bytes, player count, config) holding the final
+// GameSnapshot (winner, turn counts, hands, decks) and optionally copies of the output files
+// entries are used least recently first out once the directory is over its size limit
+public class ResultCache {
+    private static final String RESULT_FILE = "result.bin";
+    private static final String FILES_DIR = "files";
+
+    private final Path directory;
+    private final long maxBytes;
+
+    public ResultCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    // hashes the raw file so a hit never has to parse the pack
+    public static String key(String packFile, int numPlayers, String config) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is missing from this JVM", e);
+        }
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(Paths.get(packFile))) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        digest.update(("\n" + numPlayers + "\n" + config).getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    // null on a miss, restores the output files into outputDir when the entry has them
+    public GameSnapshot lookup(String key, Path outputDir) {
+        Path entry = directory.resolve(key);
+        Path result = entry.resolve(RESULT_FILE);
+        if (!Files.isRegularFile(result)) {
+            return null;
+        }
+        try {
+            GameSnapshot snapshot = GameSnapshot.readFromFile(result.toString());
+            Path files = entry.resolve(FILES_DIR);
+            if (outputDir != null && Files.isDirectory(files)) {
+                try (DirectoryStream<Path> stored = Files.newDirectoryStream(files)) {
+                    for (Path file : stored) {
+                        Files.copy(file, outputDir.resolve(file.getFileName().toString()),
+                                StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return snapshot;
+        } catch (IOException e) {
+            // a broken entry is just a miss
+            System.err.println("Ignoring cache entry " + key + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // built in a temp directory then moved into place, so readers never see half an entry
+    public void store(String key, GameSnapshot result, List<Path> outputFiles) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempDirectory(directory, key + ".tmp");
+        try {
+            result.writeToFile(temp.resolve(RESULT_FILE).toString());
+            if (!outputFiles.isEmpty()) {
+                Path files = Files.createDirectory(temp.resolve(FILES_DIR));
+                for (Path file : outputFiles) {
+                    Files.copy(file, files.resolve(file.getFileName().toString()));
+                }
+            }
+            Path entry = directory.resolve(key);
+            deleteRecursively(entry);
+            Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            deleteRecursively(temp);
+        }
+        evict(key);
+    }
+
+    // the entry just stored always stays, even on its own over the limit
+    private void evict(String keep) throws IOException {
+        List<Path> entries = entries();
+        List<long[]> info = new ArrayList<>(); // last used, size, index
+        long total = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            long size = sizeOf(entries.get(i));
+            total += size;
+            info.add(new long[]{Files.getLastModifiedTime(entries.get(i)).toMillis(), size, i});
+        }
+        info.sort(Comparator.comparingLong(e -> e[0]));
+        for (long[] oldest : info) {
+            if (total <= maxBytes) {
+                break;
+            }
+            if (entries.get((int) oldest[2]).getFileName().toString().equals(keep)) {
+                continue;
+            }
+            deleteRecursively(entries.get((int) oldest[2]));
+            total -= oldest[1];
+        }
+    }
+
+    private List<Path> entries() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return entries;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path entry : stream) {
+                if (Files.isDirectory(entry) && !entry.getFileName().toString().contains(".tmp")) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static long sizeOf(Path entry) throws IOException {
+        try (Stream<Path> files = Files.walk(entry)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+// CardDeck backed by a power of two array ring of Card references, used by reused games
+// drawing and discarding never allocate (the queue in CardDeck makes a node per discard)
+// and clear() empties it for the next game without giving the array back
+public class RingCardDeck extends CardDeck {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ReentrantLock lock;
+    private Card[] slots;
+    private int head;
+    private volatile int count;
+
+    public RingCardDeck(int deckNumber) {
+        super(deckNumber);
+        this.lock = new ReentrantLock();
+        this.slots = new Card[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public Card drawCard() {
+        lock.lock();
+        try {
+            if (count == 0) {
+                return null;
+            }
+            Card card = slots[head];
+            slots[head] = null;
+            head = (head + 1) & (slots.length - 1);
+            count--;
+            return card;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void discardCard(Card card) {
+        lock.lock();
+        try {
+            if (count == slots.length) {
+                grow();
+            }
+            slots[(head + count) & (slots.length - 1)] = card;
+            count++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addCard(Card card) {
+        discardCard(card);
+    }
+
+    // double the ring and unwrap it so head goes back to 0
+    private void grow() {
+        Card[] bigger = new Card[slots.length * 2];
+        for (int i = 0; i < count; i++) {
+            bigger[i] = slots[(head + i) & (slots.length - 1)];
+        }
+        slots = bigger;
+        head = 0;
+    }
+
+    // between games only, keeps the array at its biggest size so far
+    public void clear() {
+        lock.lock();
+        try {
+            Arrays.fill(slots, null);
+            head = 0;
+            count = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int[] getDenominations() {
+        lock.lock();
+        try {
+            int[] denominations = new int[count];
+            for (int i = 0; i < count; i++) {
+                denominations[i] = slots[(head + i) & (slots.length - 1)].getDenomination();
+            }
+            return denominations;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    long fingerprint(long hash) {
+        lock.lock();
+        try {
+            hash = GameSnapshot.mix(hash, count);
+            for (int i = 0; i < count; i++) {
+                hash = GameSnapshot.mix(hash, slots[(head + i) & (slots.length - 1)].getDenomination());
+            }
+            return hash;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            StringBuilder sb = new StringBuilder();
+            sb.append("deck").append(getDeckNumber()).append(" contents:");
+            for (int i = 0; i < count; i++) {
+                sb.append(" ").append(slots[(head + i) & (slots.length - 1)]);
+            }
+            return sb.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
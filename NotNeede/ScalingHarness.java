@@ -0,0 +1,526 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+// sweeps player counts, deck modes and cpu limits, every game in its own JVM running CardGame headless
+// (--players --pack --run-summary), and writes results.csv plus report.html with the charts inline
+// so it opens offline. packs come from PackGenerator with a fixed seed and every game gets the same
+// turn budget per player, so a rerun plays the same work; thread timing still differs so each point
+// is run --repeats times and the charts show the median
+// usage: java ScalingHarness [--players 2,10,100] [--cpus 1,2] [--mode ring] [--mode name=flags ...]
+//                            [--repeats 3] [--turns-per-player 50] [--timeout 600] [--heap 2g]
+//                            [--out scaling-report] [--keep-logs]
+// the default sweep stops at 1000 players. 10000 and up are one thread per player and only finish with
+// plenty of cores, a 10000 player ring on 1 cpu still hit the 600s timeout, so ask for them with --players
+// and a longer --timeout
+// cpu limits use taskset when it is there, -XX:ActiveProcessorCount always (so pools size to match)
+public class ScalingHarness {
+    static final String[] COLUMNS = {"mode", "players", "cpus", "repeat", "status", "winner", "turns", "wall_ms",
+            "turns_per_sec", "p50_us", "p99_us", "peak_heap_mb", "peak_threads"};
+
+    // the tree has one threading model (a thread per seat) so the modes are the deck setups around it
+    static final Map<String, String> BUILT_IN_MODES = new LinkedHashMap<>();
+    static {
+        BUILT_IN_MODES.put("ring", "");
+        BUILT_IN_MODES.put("ring-offheap", "--off-heap-decks");
+        BUILT_IN_MODES.put("central", "--topology central --concurrent-decks");
+        BUILT_IN_MODES.put("neighbours", "--topology neighbours:8 --concurrent-decks");
+    }
+
+    int[] playerCounts = {2, 10, 100, 1000}; // see the usage above for bigger games
+    int[] cpuLimits;
+    Map<String, String> modes = new LinkedHashMap<>();
+    int repeats = 3;
+    long turnsPerPlayer = 50;
+    long timeoutSeconds = 600;
+    String heap = "2g";
+    Path outDir = Paths.get("scaling-report");
+    boolean keepLogs = false;
+    String classpath;
+
+    public static void main(String[] args) {
+        ScalingHarness harness;
+        try {
+            harness = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+        try {
+            List<Map<String, String>> results = harness.runAll();
+            System.out.println("Wrote " + harness.outDir.resolve("results.csv") + " and "
+                    + harness.outDir.resolve("report.html"));
+            if (results.isEmpty()) {
+                System.out.println("Error: nothing was run");
+            }
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static ScalingHarness parse(String[] args) {
+        ScalingHarness harness = new ScalingHarness();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--players":
+                    harness.playerCounts = parseList(GameOptions.requireValue(args, ++i, arg), arg);
+                    break;
+                case "--cpus":
+                    harness.cpuLimits = parseList(GameOptions.requireValue(args, ++i, arg), arg);
+                    break;
+                case "--mode":
+                    harness.addMode(GameOptions.requireValue(args, ++i, arg));
+                    break;
+                case "--repeats":
+                    harness.repeats = (int) GameOptions.parsePositive(GameOptions.requireValue(args, ++i, arg), arg);
+                    break;
+                case "--turns-per-player":
+                    harness.turnsPerPlayer = GameOptions.parsePositive(GameOptions.requireValue(args, ++i, arg), arg);
+                    break;
+                case "--timeout":
+                    harness.timeoutSeconds = GameOptions.parsePositive(GameOptions.requireValue(args, ++i, arg), arg);
+                    break;
+                case "--heap":
+                    harness.heap = GameOptions.requireValue(args, ++i, arg);
+                    break;
+                case "--out":
+                    harness.outDir = Paths.get(GameOptions.requireValue(args, ++i, arg));
+                    break;
+                case "--keep-logs":
+                    harness.keepLogs = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (harness.modes.isEmpty()) {
+            harness.addMode("ring");
+            harness.addMode("central");
+        }
+        if (harness.cpuLimits == null) {
+            harness.cpuLimits = defaultCpuLimits(Runtime.getRuntime().availableProcessors());
+        }
+        return harness;
+    }
+
+    static int[] parseList(String value, String flag) {
+        String[] parts = value.split(",");
+        int[] parsed = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            parsed[i] = (int) GameOptions.parsePositive(parts[i].trim(), flag);
+        }
+        return parsed;
+    }
+
+    // 1, 2, 4 .. and the machine's own count
+    static int[] defaultCpuLimits(int available) {
+        List<Integer> limits = new ArrayList<>();
+        for (int cpus = 1; cpus < available; cpus *= 2) {
+            limits.add(cpus);
+        }
+        limits.add(available);
+        return limits.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // a built in name or name=CardGame flags
+    void addMode(String spec) {
+        int equals = spec.indexOf('=');
+        if (equals < 0) {
+            String flags = BUILT_IN_MODES.get(spec);
+            if (flags == null) {
+                throw new IllegalArgumentException("Unknown mode: " + spec + " (built in: "
+                        + String.join(", ", BUILT_IN_MODES.keySet()) + ", or name=flags)");
+            }
+            modes.put(spec, flags);
+            return;
+        }
+        String name = spec.substring(0, equals);
+        String flags = spec.substring(equals + 1).trim();
+        if (name.isEmpty() || !name.matches("[A-Za-z0-9_.-]+")) {
+            throw new IllegalArgumentException("Invalid mode name: " + spec);
+        }
+        GameOptions.parse(splitFlags(flags)); // bad flags fail here instead of in every child
+        modes.put(name, flags);
+    }
+
+    static String[] splitFlags(String flags) {
+        return flags.isEmpty() ? new String[0] : flags.split("\\s+");
+    }
+
+    List<Map<String, String>> runAll() throws IOException, InterruptedException {
+        Files.createDirectories(outDir.resolve("packs"));
+        Files.createDirectories(outDir.resolve("runs"));
+        if (classpath == null) {
+            classpath = ownClasspath();
+        }
+        List<Map<String, String>> results = new ArrayList<>();
+        for (int players : playerCounts) {
+            Path pack = packFor(players);
+            for (Map.Entry<String, String> mode : modes.entrySet()) {
+                for (int cpus : cpuLimits) {
+                    for (int repeat = 1; repeat <= repeats; repeat++) {
+                        Map<String, String> result = runOne(mode.getKey(), mode.getValue(), players, cpus, repeat, pack);
+                        System.out.println(String.format(Locale.ROOT, "%-12s players=%-7d cpus=%-3d #%d %-8s %s turns/s p99 %s us",
+                                mode.getKey(), players, cpus, repeat, result.get("status"),
+                                result.get("turns_per_sec"), result.get("p99_us")));
+                        results.add(result);
+                        // written as it goes so a long sweep that gets stopped still leaves something
+                        writeCsv(outDir.resolve("results.csv"), results);
+                    }
+                }
+            }
+        }
+        writeReport(outDir.resolve("report.html"), results, describe());
+        return results;
+    }
+
+    // the directory or jar CardGame was loaded from, what the children run
+    static String ownClasspath() {
+        try {
+            return Paths.get(CardGame.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException | NullPointerException e) {
+            return System.getProperty("java.class.path");
+        }
+    }
+
+    private Path packFor(int players) throws IOException {
+        Path pack = outDir.resolve("packs").resolve("pack-" + players + ".txt").toAbsolutePath();
+        if (!Files.exists(pack)) {
+            new PackGenerator(players, PackGenerator.Distribution.UNIFORM, 1).writeToFile(pack.toString());
+        }
+        return pack;
+    }
+
+    List<String> command(String modeFlags, int players, int cpus, Path pack) {
+        List<String> command = new ArrayList<>();
+        String taskset = findTaskset();
+        if (taskset != null && cpus <= Runtime.getRuntime().availableProcessors()) {
+            command.addAll(Arrays.asList(taskset, "-c", cpus == 1 ? "0" : "0-" + (cpus - 1)));
+        }
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx" + heap);
+        command.add("-XX:ActiveProcessorCount=" + cpus);
+        command.addAll(Arrays.asList("-cp", classpath, "CardGame"));
+        command.addAll(Arrays.asList("--players", String.valueOf(players), "--pack", pack.toString(),
+                "--max-turns", String.valueOf(turnsPerPlayer * players), "--run-summary"));
+        command.addAll(Arrays.asList(splitFlags(modeFlags)));
+        return command;
+    }
+
+    private static String findTaskset() {
+        for (String dir : new String[]{"/usr/bin", "/bin", "/usr/local/bin"}) {
+            File taskset = new File(dir, "taskset");
+            if (taskset.canExecute()) {
+                return taskset.getPath();
+            }
+        }
+        return null;
+    }
+
+    private Map<String, String> runOne(String mode, String modeFlags, int players, int cpus, int repeat, Path pack)
+            throws IOException, InterruptedException {
+        Path runDir = outDir.resolve("runs").resolve(mode + "-p" + players + "-c" + cpus + "-r" + repeat);
+        Files.createDirectories(runDir);
+        Path stdout = runDir.resolve("stdout.txt");
+
+        // players and decks write their files into the working directory
+        ProcessBuilder builder = new ProcessBuilder(command(modeFlags, players, cpus, pack))
+                .directory(runDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(stdout.toFile());
+        Process process = builder.start();
+        process.getOutputStream().close();
+        boolean finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
+        if (!finished) {
+            process.destroyForcibly().waitFor();
+        }
+
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String column : COLUMNS) {
+            result.put(column, "");
+        }
+        result.put("mode", mode);
+        result.put("players", String.valueOf(players));
+        result.put("cpus", String.valueOf(cpus));
+        result.put("repeat", String.valueOf(repeat));
+        List<String> lines = Files.readAllLines(stdout, StandardCharsets.UTF_8);
+        result.put("status", finished ? status(lines) : "timeout");
+        for (String line : lines) {
+            if (line.startsWith("summary ")) {
+                for (Map.Entry<String, String> field : parseSummary(line).entrySet()) {
+                    if (result.containsKey(field.getKey())) {
+                        result.put(field.getKey(), field.getValue());
+                    }
+                }
+            }
+        }
+        if (!keepLogs) {
+            deleteGameFiles(runDir);
+        }
+        return result;
+    }
+
+    // won, budget (turn budget used up, the usual end for big tables), aborted (watchdog) or failed
+    static String status(List<String> lines) {
+        String status = "failed";
+        boolean summarised = false;
+        for (String line : lines) {
+            if (line.startsWith("Game stopped with no winner: ")) {
+                status = line.contains("turn budget") ? "budget" : "aborted";
+            } else if (line.startsWith("Game completed successfully")) {
+                status = "won";
+            }
+            summarised |= line.startsWith("summary ");
+        }
+        return summarised ? status : "failed";
+    }
+
+    static Map<String, String> parseSummary(String line) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (String part : line.trim().split(" ")) {
+            int equals = part.indexOf('=');
+            if (equals > 0) {
+                fields.put(part.substring(0, equals), part.substring(equals + 1));
+            }
+        }
+        return fields;
+    }
+
+    // keeps stdout.txt, the player and deck logs of a 100k game are gigabytes
+    private static void deleteGameFiles(Path runDir) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(runDir, "*_output.txt*")) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    static void writeCsv(Path file, List<Map<String, String>> results) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println(String.join(",", COLUMNS));
+            for (Map<String, String> result : results) {
+                List<String> row = new ArrayList<>();
+                for (String column : COLUMNS) {
+                    row.add(result.get(column));
+                }
+                out.println(String.join(",", row));
+            }
+        }
+    }
+
+    private String describe() {
+        return LocalDateTime.now().withNano(0) + ", " + System.getProperty("os.name") + " " + System.getProperty("os.arch")
+                + ", java " + System.getProperty("java.version") + ", " + Runtime.getRuntime().availableProcessors()
+                + " cpus, heap " + heap + ", " + turnsPerPlayer + " turns per player, " + repeats + " repeats, cpus "
+                + Arrays.toString(cpuLimits) + (findTaskset() == null ? " (no taskset, ActiveProcessorCount only)" : "");
+    }
+
+    // the report charts medians of the runs that finished (won or used up their budget)
+    static void writeReport(Path file, List<Map<String, String>> results, String description) throws IOException {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>CardGame scaling</title>\n")
+            .append("<style>body{font-family:sans-serif;margin:2em}table{border-collapse:collapse;font-size:13px}")
+            .append("td,th{border:1px solid #ccc;padding:2px 6px;text-align:right}svg{margin:1em 1em 0 0}")
+            .append(".failed,.timeout,.aborted{color:#b00}</style></head><body>\n")
+            .append("<h1>CardGame scaling</h1>\n<p>").append(escape(description)).append("</p>\n");
+        String[][] charts = {
+            {"turns_per_sec", "turns per second", "linear"},
+            {"wall_ms", "wall time (ms)", "log"},
+            {"p50_us", "p50 turn latency (us)", "log"},
+            {"p99_us", "p99 turn latency (us)", "log"},
+            {"peak_heap_mb", "peak heap (MB)", "log"},
+            {"peak_threads", "peak threads", "log"},
+        };
+        for (String[] chart : charts) {
+            html.append(svgChart(chart[1], medians(results, chart[0]), chart[2].equals("log"))).append('\n');
+        }
+        html.append("<h2>every run</h2>\n<table><tr>");
+        for (String column : COLUMNS) {
+            html.append("<th>").append(column).append("</th>");
+        }
+        html.append("</tr>\n");
+        for (Map<String, String> result : results) {
+            html.append("<tr class=\"").append(escape(result.get("status"))).append("\">");
+            for (String column : COLUMNS) {
+                html.append("<td>").append(escape(result.get(column))).append("</td>");
+            }
+            html.append("</tr>\n");
+        }
+        html.append("</table>\n</body></html>\n");
+        Files.write(file, html.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // "mode, N cpus" -> players -> median of the metric
+    static Map<String, TreeMap<Integer, Double>> medians(List<Map<String, String>> results, String metric) {
+        Map<String, TreeMap<Integer, List<Double>>> samples = new LinkedHashMap<>();
+        for (Map<String, String> result : results) {
+            String status = result.get("status");
+            String value = result.get(metric);
+            if (!(status.equals("won") || status.equals("budget")) || value.isEmpty()) {
+                continue;
+            }
+            String series = result.get("mode") + ", " + result.get("cpus") + " cpu" + (result.get("cpus").equals("1") ? "" : "s");
+            samples.computeIfAbsent(series, k -> new TreeMap<>())
+                   .computeIfAbsent(Integer.parseInt(result.get("players")), k -> new ArrayList<>())
+                   .add(Double.parseDouble(value));
+        }
+        Map<String, TreeMap<Integer, Double>> medians = new LinkedHashMap<>();
+        for (Map.Entry<String, TreeMap<Integer, List<Double>>> series : samples.entrySet()) {
+            TreeMap<Integer, Double> points = new TreeMap<>();
+            for (Map.Entry<Integer, List<Double>> point : series.getValue().entrySet()) {
+                double[] values = point.getValue().stream().mapToDouble(Double::doubleValue).sorted().toArray();
+                int middle = values.length / 2;
+                points.put(point.getKey(), values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2);
+            }
+            medians.put(series.getKey(), points);
+        }
+        return medians;
+    }
+
+    private static final String[] COLOURS = {"#1f77b4", "#d62728", "#2ca02c", "#ff7f0e", "#9467bd", "#8c564b",
+            "#e377c2", "#17becf"};
+
+    // players on a log x axis, one line per series
+    static String svgChart(String title, Map<String, TreeMap<Integer, Double>> series, boolean logY) {
+        int width = 520;
+        int height = 320;
+        int left = 70;
+        int right = 150;
+        int top = 30;
+        int bottom = 40;
+        int plotWidth = width - left - right;
+        int plotHeight = height - top - bottom;
+
+        int minX = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        double maxY = 0;
+        double minY = Double.MAX_VALUE;
+        for (TreeMap<Integer, Double> points : series.values()) {
+            for (Map.Entry<Integer, Double> point : points.entrySet()) {
+                minX = Math.min(minX, point.getKey());
+                maxX = Math.max(maxX, point.getKey());
+                maxY = Math.max(maxY, point.getValue());
+                if (point.getValue() > 0) {
+                    minY = Math.min(minY, point.getValue());
+                }
+            }
+        }
+        StringBuilder svg = new StringBuilder();
+        svg.append(String.format(Locale.ROOT, "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" "
+                + "font-size=\"11\">", width, height));
+        svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"18\" font-size=\"14\">%s</text>", left, escape(title)));
+        if (series.isEmpty()) {
+            svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\">no finished runs</text></svg>", left, top + 20));
+            return svg.toString();
+        }
+
+        double x0 = Math.log10(minX);
+        double x1 = Math.max(Math.log10(maxX), x0 + 1e-9);
+        double y0;
+        double y1;
+        if (logY && minY < Double.MAX_VALUE) {
+            y0 = Math.floor(Math.log10(minY));
+            y1 = Math.max(Math.ceil(Math.log10(maxY)), y0 + 1);
+        } else {
+            y0 = 0;
+            y1 = maxY > 0 ? maxY * 1.1 : 1;
+        }
+
+        svg.append(String.format(Locale.ROOT, "<rect x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\" fill=\"none\" "
+                + "stroke=\"#999\"/>", left, top, plotWidth, plotHeight));
+        // x ticks at every player count that was run
+        TreeSet<Integer> xs = new TreeSet<>();
+        for (TreeMap<Integer, Double> points : series.values()) {
+            xs.addAll(points.keySet());
+        }
+        for (int x : xs) {
+            double px = left + (minX == maxX ? plotWidth / 2.0 : (Math.log10(x) - x0) / (x1 - x0) * plotWidth);
+            svg.append(String.format(Locale.ROOT, "<line x1=\"%.1f\" y1=\"%d\" x2=\"%.1f\" y2=\"%d\" stroke=\"#eee\"/>"
+                    + "<text x=\"%.1f\" y=\"%d\" text-anchor=\"middle\">%d</text>",
+                    px, top, px, top + plotHeight, px, top + plotHeight + 14, x));
+        }
+        svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\" text-anchor=\"middle\">players</text>",
+                left + plotWidth / 2, height - 6));
+        // y ticks, powers of ten or five even steps
+        List<Double> yTicks = new ArrayList<>();
+        if (logY) {
+            for (double e = y0; e <= y1; e++) {
+                yTicks.add(Math.pow(10, e));
+            }
+        } else {
+            for (int i = 0; i <= 5; i++) {
+                yTicks.add(y1 * i / 5);
+            }
+        }
+        for (double y : yTicks) {
+            double py = top + plotHeight - scale(y, y0, y1, logY) * plotHeight;
+            svg.append(String.format(Locale.ROOT, "<line x1=\"%d\" y1=\"%.1f\" x2=\"%d\" y2=\"%.1f\" stroke=\"#eee\"/>"
+                    + "<text x=\"%d\" y=\"%.1f\" text-anchor=\"end\">%s</text>",
+                    left, py, left + plotWidth, py, left - 4, py + 4, formatTick(y)));
+        }
+
+        int colour = 0;
+        for (Map.Entry<String, TreeMap<Integer, Double>> line : series.entrySet()) {
+            String stroke = COLOURS[colour % COLOURS.length];
+            StringBuilder path = new StringBuilder();
+            for (Map.Entry<Integer, Double> point : line.getValue().entrySet()) {
+                double px = left + (minX == maxX ? plotWidth / 2.0 : (Math.log10(point.getKey()) - x0) / (x1 - x0) * plotWidth);
+                double py = top + plotHeight - scale(point.getValue(), y0, y1, logY) * plotHeight;
+                path.append(path.length() == 0 ? "M" : " L").append(String.format(Locale.ROOT, "%.1f %.1f", px, py));
+                svg.append(String.format(Locale.ROOT, "<circle cx=\"%.1f\" cy=\"%.1f\" r=\"3\" fill=\"%s\">"
+                        + "<title>%s: %d players, %s</title></circle>", px, py, stroke, escape(line.getKey()),
+                        point.getKey(), formatTick(point.getValue())));
+            }
+            svg.append("<path d=\"").append(path).append("\" fill=\"none\" stroke=\"").append(stroke)
+               .append("\" stroke-width=\"1.5\"/>");
+            int legendY = top + 10 + colour * 16;
+            svg.append(String.format(Locale.ROOT, "<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"%s\" "
+                    + "stroke-width=\"2\"/><text x=\"%d\" y=\"%d\">%s</text>", left + plotWidth + 10, legendY,
+                    left + plotWidth + 28, legendY, stroke, left + plotWidth + 32, legendY + 4, escape(line.getKey())));
+            colour++;
+        }
+        svg.append("</svg>");
+        return svg.toString();
+    }
+
+    // 0..1 up the plot, values under the log axis sit on the bottom edge
+    private static double scale(double y, double y0, double y1, boolean logY) {
+        if (logY) {
+            return y <= 0 ? 0 : Math.max(0, (Math.log10(y) - y0) / (y1 - y0));
+        }
+        return (y - y0) / (y1 - y0);
+    }
+
+    private static String formatTick(double value) {
+        if (value >= 1e6) {
+            return String.format(Locale.ROOT, "%.1fM", value / 1e6);
+        }
+        if (value >= 1e3) {
+            return String.format(Locale.ROOT, "%.1fk", value / 1e3);
+        }
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
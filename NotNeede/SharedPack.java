@@ -0,0 +1,79 @@
+import java.nio.ByteBuffer;
+
+// one parsed pack file, read only, dealt from by every game that loaded it through a PackRegistry
+// cards are stored as 1, 2 or 4 bytes each depending on the biggest denomination, on the heap or in
+// a mapped file. only absolute reads are used so any number of games can deal from it at once
+// a mapped pack is unmapped as soon as the last game releases it, reading it after that throws
+public final class SharedPack {
+    private final PackRegistry registry;
+    final Object key;
+    private final ByteBuffer cards;
+    private final ByteBuffer mapping; // the buffer that owns the mapping, cards is a read only view of it
+    private final int width;
+    private final int size;
+    private final boolean winnable;
+    private final boolean mapped;
+    int references; // guarded by the registry
+    private volatile boolean unmapped;
+
+    SharedPack(PackRegistry registry, Object key, ByteBuffer cards, int width, int size, boolean winnable,
+               boolean mapped) {
+        this.registry = registry;
+        this.key = key;
+        this.cards = cards.asReadOnlyBuffer();
+        this.mapping = mapped ? cards : null;
+        this.width = width;
+        this.size = size;
+        this.winnable = winnable;
+        this.mapped = mapped;
+    }
+
+    // bytes per card for denominations up to max
+    static int widthFor(int max) {
+        return max <= 0xFF ? 1 : max <= 0xFFFF ? 2 : 4;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int index) {
+        if (unmapped) {
+            throw new IllegalStateException("Pack has been released and unmapped");
+        }
+        switch (width) {
+            case 1:
+                return cards.get(index) & 0xFF;
+            case 2:
+                return cards.getShort(index * 2) & 0xFFFF;
+            default:
+                return cards.getInt(index * 4);
+        }
+    }
+
+    // some denomination appears at least 4 times, worked out once when the pack was parsed
+    public boolean isWinnable() {
+        return winnable;
+    }
+
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    public long getBytes() {
+        return (long) size * width;
+    }
+
+    // call once per acquire, the registry drops the pack when the last game lets go
+    public void release() {
+        registry.release(this);
+    }
+
+    // called by the registry once nobody holds the pack, a view cant be unmapped so this uses the original
+    void unmap() {
+        if (mapping != null && !unmapped) {
+            unmapped = true;
+            DeckArena.release(mapping);
+        }
+    }
+}
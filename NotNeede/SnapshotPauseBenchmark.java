@@ -0,0 +1,68 @@
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+// how long captureSnapshot holds every player at the turn gate while a big game is running
+// usage: java SnapshotPauseBenchmark <players> [captures] [gzip block kb]
+// plays a generated pack with a turn budget and takes a snapshot every 20 ms until the game ends,
+// writes the usual output files into the working directory, game chatter on stdout is thrown away
+public class SnapshotPauseBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: java SnapshotPauseBenchmark <players> [captures] [gzip block kb]");
+            return;
+        }
+        int numPlayers = Integer.parseInt(args[0]);
+        int captures = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int gzipBlockKb = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        File packFile = File.createTempFile("snapshot_pause_pack", ".txt");
+        packFile.deleteOnExit();
+        new PackGenerator(numPlayers, PackGenerator.Distribution.ADVERSARIAL, 1).writeToFile(packFile.getPath());
+
+        GameOptions options = new GameOptions();
+        options.watchdog = false; // only our snapshots
+        options.maxTurns = 1000L * numPlayers;
+        options.gzipBlockKb = gzipBlockKb;
+        CardGame game = new CardGame(options);
+
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long[] pauses = new long[captures];
+        int taken = 0;
+        long turns;
+        try {
+            if (!game.loadPack(numPlayers, packFile.getPath())) {
+                System.setOut(stdout);
+                System.out.println("Could not load the generated pack");
+                return;
+            }
+            game.deal();
+            Thread playing = new Thread(game::play);
+            playing.start();
+            while (taken < captures && playing.isAlive()) {
+                Thread.sleep(20);
+                long start = System.nanoTime();
+                game.captureSnapshot();
+                pauses[taken++] = System.nanoTime() - start;
+            }
+            game.abort("benchmark done");
+            playing.join();
+            turns = game.captureSnapshot().getTotalTurns();
+        } finally {
+            System.setOut(stdout);
+        }
+
+        long[] sorted = Arrays.copyOf(pauses, taken);
+        Arrays.sort(sorted);
+        System.out.println(numPlayers + " players, " + taken + " snapshots over " + turns + " turns"
+                         + (gzipBlockKb > 0 ? ", gzip output" : ""));
+        if (taken > 0) {
+            System.out.printf("pause p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                    sorted[taken / 2] / 1e6, sorted[Math.min(taken - 1, taken * 99 / 100)] / 1e6,
+                    sorted[taken - 1] / 1e6);
+        }
+    }
+}
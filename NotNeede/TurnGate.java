@@ -0,0 +1,60 @@
+import java.util.List;
+
+// lets the game briefly stop every player between turns (used for snapshots)
+// players only pay a couple of volatile accesses per turn when nobody is pausing
+public class TurnGate {
+    private volatile boolean pauseRequested;
+    private final Object monitor = new Object();
+
+    // false means the player was interrupted while held at the gate
+    public boolean enterTurn(Player player) {
+        while (true) {
+            player.inTurn = true;
+            if (!pauseRequested) {
+                return true;
+            }
+            // someone wants a consistent view, step back out and wait
+            player.inTurn = false;
+            if (!awaitRelease()) {
+                return false;
+            }
+        }
+    }
+
+    public void exitTurn(Player player) {
+        player.inTurn = false;
+    }
+
+    private boolean awaitRelease() {
+        synchronized (monitor) {
+            while (pauseRequested) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // blocks until no player is mid turn, players stay out until release()
+    public void quiesce(List<Player> players) {
+        synchronized (monitor) {
+            pauseRequested = true;
+        }
+        for (Player player : players) {
+            while (player.inTurn) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    public void release() {
+        synchronized (monitor) {
+            pauseRequested = false;
+            monitor.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// histogram of how long turns take (draw to discard and the log lines), for --run-summary
+// log buckets with 16 steps per power of two so any percentile is within ~6% of the real value,
+// fixed size whatever the player count. players are spread over stripes so they rarely share a counter
+public class TurnLatency {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40; // ~18 minutes in nanos, longer turns land in the top bucket
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+    private final int stripeMask;
+
+    public TurnLatency() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    TurnLatency(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, Math.min(stripes, 64)) * 2 - 1);
+        this.counts = new AtomicLongArray(size * BUCKETS);
+        this.stripeMask = size - 1;
+    }
+
+    public void record(int playerNumber, long nanos) {
+        counts.incrementAndGet((playerNumber & stripeMask) * BUCKETS + bucket(nanos));
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(0, nanos);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // smallest value that lands in the bucket
+    static long lowest(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+    }
+
+    private long[] merged() {
+        long[] merged = new long[BUCKETS];
+        for (int i = 0; i < counts.length(); i++) {
+            merged[i % BUCKETS] += counts.get(i);
+        }
+        return merged;
+    }
+
+    public long count() {
+        long total = 0;
+        for (long count : merged()) {
+            total += count;
+        }
+        return total;
+    }
+
+    // nanos, middle of the bucket holding the quantile (0 < quantile <= 1), 0 when nothing was recorded
+    public long percentile(double quantile) {
+        long[] merged = merged();
+        long total = 0;
+        for (long count : merged) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += merged[i];
+            if (seen >= rank) {
+                long low = lowest(i);
+                long high = i + 1 < BUCKETS ? lowest(i + 1) : low;
+                return low + (high - low) / 2;
+            }
+        }
+        return lowest(BUCKETS - 1);
+    }
+}
@@ -0,0 +1,406 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// estimates each seat's chance of winning a pack, and how long games run, without any threads per player
+// one simulated game deals the pack like CardGame then picks a random player for every step, so each game
+// is one random interleaving of the real turns, same discard strategies and same four of a kind check
+// games run in batches spread over every core, each worker with its own SplittableRandom split off one seed
+// so a seed gives the same answer on the same machine, and it stops once every seat's 95% interval is narrow enough
+//
+// usage: java WinProbabilityEstimator <players> <pack file> [--strategy a,b] [--target <half width>]
+//        [--max-games <n>] [--max-turns <n>] [--seed <n>]
+public class WinProbabilityEstimator {
+    private static final double Z95 = 1.96;
+
+    private final int numPlayers;
+    private final int[] pack;
+    private String[] strategies = {"first"};
+    private double targetHalfWidth = 0.01;
+    private long maxGames = 100_000;
+    private int minGames = 200;
+    private long maxTurnsPerGame;
+    private long seed = 1;
+
+    public WinProbabilityEstimator(int numPlayers, int[] pack) {
+        if (numPlayers <= 0) {
+            throw new IllegalArgumentException("Number of players must be positive");
+        }
+        if (pack.length != 8 * numPlayers) {
+            throw new IllegalArgumentException("Pack must contain exactly " + (8 * numPlayers) + " cards");
+        }
+        this.numPlayers = numPlayers;
+        this.pack = pack;
+        this.maxTurnsPerGame = 10_000L * numPlayers;
+    }
+
+    public void setStrategies(String[] strategies) {
+        for (String strategy : strategies) {
+            DiscardStrategy.forName(strategy, 0); // fail on a bad name now
+        }
+        this.strategies = strategies;
+    }
+
+    public void setTargetHalfWidth(double targetHalfWidth) {
+        this.targetHalfWidth = targetHalfWidth;
+    }
+
+    public void setMaxGames(long maxGames) {
+        this.maxGames = maxGames;
+        this.minGames = (int) Math.min(minGames, maxGames);
+    }
+
+    public void setMaxTurnsPerGame(long maxTurnsPerGame) {
+        this.maxTurnsPerGame = maxTurnsPerGame;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public Estimate run() {
+        long start = System.nanoTime();
+        int workers = Runtime.getRuntime().availableProcessors();
+        Simulation[] simulations = new Simulation[workers];
+        SplittableRandom master = new SplittableRandom(seed);
+        for (int w = 0; w < workers; w++) {
+            simulations[w] = new Simulation(master.split());
+        }
+
+        Estimate estimate = new Estimate(numPlayers);
+        int gamesPerWorker = Math.max(1, minGames / workers);
+        while (estimate.games < maxGames) {
+            long remaining = maxGames - estimate.games;
+            int perWorker = (int) Math.min(gamesPerWorker, (remaining + workers - 1) / workers);
+            IntStream.range(0, workers).parallel().forEach(w -> simulations[w].play(perWorker));
+
+            // merged in worker order so the totals dont depend on scheduling
+            for (Simulation simulation : simulations) {
+                estimate.merge(simulation);
+                simulation.clearTotals();
+            }
+            if (estimate.games >= minGames && estimate.maxHalfWidth() <= targetHalfWidth) {
+                break;
+            }
+            // double the batch each time, cheap packs converge in a few rounds
+            gamesPerWorker = (int) Math.min(gamesPerWorker * 2L, 1 << 20);
+        }
+        estimate.elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        return estimate;
+    }
+
+    // one worker's reusable game state, nothing is allocated per game once the decks have grown
+    private final class Simulation {
+        private final SplittableRandom random;
+        private final DiscardStrategy[] seats;
+        private final int[] hands;     // 4 per player
+        private final int[][] decks;   // ring buffers, deck d is what player d draws from
+        private final int[] deckHeads;
+        private final int[] deckCounts;
+        private final int[] scratch = new int[5];
+        private final int[] initialWinners;
+
+        final long[] wins;
+        long games;
+        long unfinished;
+        double turnSum;
+        double turnSumSquares;
+
+        Simulation(SplittableRandom random) {
+            this.random = random;
+            this.seats = new DiscardStrategy[numPlayers];
+            for (int seat = 1; seat <= numPlayers; seat++) {
+                String name = strategies[(seat - 1) % strategies.length].trim();
+                // random seats are seeded from this worker so runs repeat
+                seats[seat - 1] = name.startsWith("random") ? new RandomDiscardStrategy(random.nextLong())
+                                                            : DiscardStrategy.forName(name, seat);
+            }
+            this.hands = new int[4 * numPlayers];
+            this.decks = new int[numPlayers][8];
+            this.deckHeads = new int[numPlayers];
+            this.deckCounts = new int[numPlayers];
+            this.initialWinners = new int[numPlayers];
+            this.wins = new long[numPlayers];
+        }
+
+        void play(int count) {
+            for (int g = 0; g < count; g++) {
+                playOne();
+            }
+        }
+
+        void clearTotals() {
+            Arrays.fill(wins, 0);
+            games = 0;
+            unfinished = 0;
+            turnSum = 0;
+            turnSumSquares = 0;
+        }
+
+        private void playOne() {
+            deal();
+            games++;
+
+            // several winning deals is a race in the real game, any of them can get there first
+            int dealtWinners = 0;
+            for (int p = 0; p < numPlayers; p++) {
+                if (isFourOfAKind(p)) {
+                    initialWinners[dealtWinners++] = p;
+                }
+            }
+            if (dealtWinners > 0) {
+                wins[initialWinners[random.nextInt(dealtWinners)]]++;
+                return; // a zero turn game
+            }
+
+            long turns = 0;
+            long steps = 0;
+            long maxSteps = maxTurnsPerGame * 4; // empty draws dont count as turns but must still end
+            while (turns < maxTurnsPerGame && steps++ < maxSteps) {
+                int p = random.nextInt(numPlayers);
+                if (deckCounts[p] == 0) {
+                    continue; // neighbour hasnt discarded yet
+                }
+                takeTurn(p);
+                turns++;
+                if (isFourOfAKind(p)) {
+                    wins[p]++;
+                    turnSum += turns;
+                    turnSumSquares += (double) turns * turns;
+                    return;
+                }
+            }
+            unfinished++;
+        }
+
+        private void deal() {
+            int n = numPlayers;
+            for (int p = 0; p < n; p++) {
+                for (int round = 0; round < 4; round++) {
+                    hands[4 * p + round] = pack[round * n + p];
+                }
+                deckHeads[p] = 0;
+                deckCounts[p] = 0;
+                for (int round = 4; round < 8; round++) {
+                    push(p, pack[round * n + p]);
+                }
+            }
+        }
+
+        // same steps as Player.performTurn: draw, pick with the strategy, discard to the next deck
+        private void takeTurn(int p) {
+            int base = 4 * p;
+            System.arraycopy(hands, base, scratch, 0, 4);
+            scratch[4] = poll(p);
+
+            int discardIndex = seats[p].selectCardToDiscard(scratch, 5, p + 1);
+            int discarded = scratch[discardIndex];
+            int kept = 0;
+            for (int i = 0; i < 5; i++) {
+                if (i != discardIndex) {
+                    hands[base + kept++] = scratch[i];
+                }
+            }
+            push((p + 1) % numPlayers, discarded);
+        }
+
+        private boolean isFourOfAKind(int p) {
+            int base = 4 * p;
+            int first = hands[base];
+            return hands[base + 1] == first && hands[base + 2] == first && hands[base + 3] == first;
+        }
+
+        private int poll(int d) {
+            int[] ring = decks[d];
+            int card = ring[deckHeads[d]];
+            deckHeads[d] = (deckHeads[d] + 1) & (ring.length - 1);
+            deckCounts[d]--;
+            return card;
+        }
+
+        // rings are powers of two so wrapping is a mask
+        private void push(int d, int card) {
+            int[] ring = decks[d];
+            if (deckCounts[d] == ring.length) {
+                int[] bigger = new int[ring.length * 2];
+                for (int i = 0; i < deckCounts[d]; i++) {
+                    bigger[i] = ring[(deckHeads[d] + i) & (ring.length - 1)];
+                }
+                decks[d] = ring = bigger;
+                deckHeads[d] = 0;
+            }
+            ring[(deckHeads[d] + deckCounts[d]) & (ring.length - 1)] = card;
+            deckCounts[d]++;
+        }
+    }
+
+    public static final class Estimate {
+        private final long[] wins;
+        private long games;
+        private long unfinished;
+        private double turnSum;
+        private double turnSumSquares;
+        private long elapsedMs;
+
+        Estimate(int numPlayers) {
+            this.wins = new long[numPlayers];
+        }
+
+        void merge(Simulation simulation) {
+            for (int p = 0; p < wins.length; p++) {
+                wins[p] += simulation.wins[p];
+            }
+            games += simulation.games;
+            unfinished += simulation.unfinished;
+            turnSum += simulation.turnSum;
+            turnSumSquares += simulation.turnSumSquares;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getUnfinishedGames() {
+            return unfinished;
+        }
+
+        // seat is 1 based like player numbers
+        public double getWinProbability(int seat) {
+            return games == 0 ? 0 : (double) wins[seat - 1] / games;
+        }
+
+        // wilson interval, unlike p +/- z*sqrt(p(1-p)/n) it doesnt shrink to nothing for a seat that
+        // won every game or none so far. its centred on getIntervalCentre, pulled from p towards 1/2,
+        // so the bounds are centre +/- half width and not p +/- half width
+        public double getHalfWidth(int seat) {
+            if (games == 0) {
+                return 1;
+            }
+            double p = getWinProbability(seat);
+            double z2 = Z95 * Z95;
+            return Z95 * Math.sqrt(p * (1 - p) / games + z2 / (4.0 * games * games)) / (1 + z2 / games);
+        }
+
+        public double getIntervalCentre(int seat) {
+            if (games == 0) {
+                return 0.5;
+            }
+            double z2 = Z95 * Z95;
+            return (getWinProbability(seat) + z2 / (2.0 * games)) / (1 + z2 / games);
+        }
+
+        // clamped only against rounding, the wilson bounds never leave [0, 1]
+        public double getLowerBound(int seat) {
+            return Math.max(0, getIntervalCentre(seat) - getHalfWidth(seat));
+        }
+
+        public double getUpperBound(int seat) {
+            return Math.min(1, getIntervalCentre(seat) + getHalfWidth(seat));
+        }
+
+        double maxHalfWidth() {
+            double max = 0;
+            for (int seat = 1; seat <= wins.length; seat++) {
+                max = Math.max(max, getHalfWidth(seat));
+            }
+            return max;
+        }
+
+        // turns taken by everyone together, over the games somebody won
+        public double getMeanTurns() {
+            long finished = games - unfinished;
+            return finished == 0 ? 0 : turnSum / finished;
+        }
+
+        public double getMeanTurnsHalfWidth() {
+            long finished = games - unfinished;
+            if (finished < 2) {
+                return 0;
+            }
+            double mean = turnSum / finished;
+            double variance = Math.max(0, (turnSumSquares - finished * mean * mean) / (finished - 1));
+            return Z95 * Math.sqrt(variance / finished);
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%d games in %d ms, %d hit the turn cap%n", games, elapsedMs, unfinished));
+            sb.append(String.format("game length: %.1f turns +/- %.1f%n", getMeanTurns(), getMeanTurnsHalfWidth()));
+
+            // every seat for small games, the likeliest winners otherwise
+            List<Integer> seats = new ArrayList<>();
+            for (int seat = 1; seat <= wins.length; seat++) {
+                seats.add(seat);
+            }
+            int shown = wins.length;
+            if (wins.length > 20) {
+                seats.sort((a, b) -> Long.compare(wins[b - 1], wins[a - 1]));
+                shown = 10;
+                sb.append("top ").append(shown).append(" seats:").append(System.lineSeparator());
+            }
+            for (int i = 0; i < shown; i++) {
+                int seat = seats.get(i);
+                sb.append(String.format("player %d: %.4f (95%% interval %.4f to %.4f)%n", seat,
+                        getWinProbability(seat), getLowerBound(seat), getUpperBound(seat)));
+            }
+            return sb.toString().trim();
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: java WinProbabilityEstimator <players> <pack file> [--strategy a,b] "
+                    + "[--target <half width>] [--max-games <n>] [--max-turns <n>] [--seed <n>]");
+            return;
+        }
+        try {
+            int players = Integer.parseInt(args[0]);
+            List<Card> cards = new ArrayList<>();
+            if (!CardGame.readAndValidatePack(args[1], players, cards)) {
+                return;
+            }
+            WinProbabilityEstimator estimator = new WinProbabilityEstimator(players,
+                    cards.stream().mapToInt(Card::getDenomination).toArray());
+
+            for (int i = 2; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--strategy":
+                        estimator.setStrategies(GameOptions.requireValue(args, ++i, arg).split(","));
+                        break;
+                    case "--target":
+                        double target = Double.parseDouble(GameOptions.requireValue(args, ++i, arg));
+                        if (!(target > 0 && target < 1)) {
+                            throw new IllegalArgumentException("--target must be between 0 and 1");
+                        }
+                        estimator.setTargetHalfWidth(target);
+                        break;
+                    case "--max-games":
+                        estimator.setMaxGames(GameOptions.parsePositive(GameOptions.requireValue(args, ++i, arg), arg));
+                        break;
+                    case "--max-turns":
+                        estimator.setMaxTurnsPerGame(GameOptions.parsePositive(GameOptions.requireValue(args, ++i, arg), arg));
+                        break;
+                    case "--seed":
+                        estimator.setSeed(Long.parseLong(GameOptions.requireValue(args, ++i, arg)));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+
+            System.out.println(estimator.run());
+        } catch (NumberFormatException e) {
+            System.out.println("Error: Invalid number: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// PackKernels on the incubating Vector API, only ever loaded by name from PackKernels.load
+// kept in its own directory so javac NotNeede/*.java builds without the incubator module, compile it
+// on top with javac --add-modules jdk.incubator.vector -cp <classes> -d <classes> NotNeede/vector/*.java
+// only the range check is done in wide lanes. counting stays the plain loop: lane private histograms
+// with gather and scatter, and compare and add per denomination, both came out slower than it
+// (see PackScanBenchmark) except for packs of four or fewer denominations
+final class VectorPackKernels extends PackKernels {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    @Override
+    public String name() {
+        return "vector (" + LANES + " lanes)";
+    }
+
+    @Override
+    public int[] range(int[] cards, int length) {
+        if (length < LANES) {
+            return super.range(cards, length);
+        }
+        IntVector min = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+        IntVector max = IntVector.broadcast(SPECIES, Integer.MIN_VALUE);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            IntVector v = IntVector.fromArray(SPECIES, cards, i);
+            min = min.min(v);
+            max = max.max(v);
+        }
+        int lo = min.reduceLanes(VectorOperators.MIN);
+        int hi = max.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            lo = Math.min(lo, cards[i]);
+            hi = Math.max(hi, cards[i]);
+        }
+        return new int[]{lo, hi};
+    }
+}
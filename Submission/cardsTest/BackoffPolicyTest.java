@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BackoffPolicy class tests")
+public class BackoffPolicyTest {
+
+    @Test
+    @DisplayName("move through spin, onSpinWait, yield then park")
+    public void testPhases() {
+        BackoffPolicy backoff = new BackoffPolicy(3, 2, 1, 1_000L, 4_000L);
+        for (int i = 0; i < 8; i++) {
+            backoff.idle();
+        }
+        assertEquals(3, backoff.getSpinRetries());
+        assertEquals(2, backoff.getSpinWaitRetries());
+        assertEquals(1, backoff.getYieldRetries());
+        assertEquals(2, backoff.getParkRetries());
+        assertEquals(8, backoff.getTotalRetries());
+    }
+
+    @Test
+    @DisplayName("start from spinning again after a successful draw")
+    public void testReset() {
+        BackoffPolicy backoff = new BackoffPolicy(1, 0, 0, 1_000L, 1_000L);
+        backoff.idle();
+        backoff.idle();
+        backoff.reset();
+        backoff.idle();
+        assertEquals(2, backoff.getSpinRetries());
+        assertEquals(1, backoff.getParkRetries());
+    }
+
+    @Test
+    @DisplayName("parse settings and reject bad ones")
+    public void testParse() {
+        BackoffPolicy backoff = BackoffPolicy.parse("0,0,0,5,10");
+        backoff.idle();
+        assertEquals(1, backoff.getParkRetries());
+        assertThrows(IllegalArgumentException.class, () -> BackoffPolicy.parse("1,2,3"));
+        assertThrows(IllegalArgumentException.class, () -> BackoffPolicy.parse("1,2,3,20,10"));
+    }
+
+    @Test
+    @DisplayName("copies keep settings but not counters")
+    public void testCopy() {
+        BackoffPolicy backoff = new BackoffPolicy(1, 0, 0, 1_000L, 1_000L);
+        backoff.idle();
+        BackoffPolicy copy = backoff.copy();
+        assertEquals(0, copy.getTotalRetries());
+        copy.idle();
+        assertEquals(1, copy.getSpinRetries());
+    }
+}
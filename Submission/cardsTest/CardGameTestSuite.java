@@ -1,15 +1,34 @@
-import org.junit.platform.suite.api.Suite;
-import org.junit.platform.suite.api.SelectClasses;
-import org.junit.platform.suite.api.SuiteDisplayName;
-
-@Suite
-@SuiteDisplayName("Card Game Test Suite")
-@SelectClasses({
-    CardTest.class,
-    CardDeckTest.class,
-    PlayerTest.class,
-    CardGameTest.class
-})
-public class CardGameTestSuite {
-    // suite runner
+import org.junit.platform.suite.api.Suite;
+import org.junit.platform.suite.api.SelectClasses;
+import org.junit.platform.suite.api.SuiteDisplayName;
+
+@Suite
+@SuiteDisplayName("Card Game Test Suite")
+@SelectClasses({
+    CardTest.class,
+    CardDeckTest.class,
+    PlayerTest.class,
+    CardGameTest.class,
+    GameSnapshotTest.class,
+    DiscardStrategyTest.class,
+    PackGeneratorTest.class,
+    DistributedCardGameTest.class,
+    BackoffPolicyTest.class,
+    GameWatchdogTest.class,
+    OutputFilePoolTest.class,
+    OffHeapCardDeckTest.class,
+    GameEventPublisherTest.class,
+    GameStatsServerTest.class,
+    LogAnalyzerTest.class,
+    WinProbabilityEstimatorTest.class,
+    ResultCacheTest.class,
+    GzipOutputTest.class,
+    ReusableGameTest.class,
+    PackKernelsTest.class,
+    DeckTopologyTest.class,
+    ScalingHarnessTest.class,
+    PackRegistryTest.class
+})
+public class CardGameTestSuite {
+    // suite runner
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@DisplayName("Deck topology tests")
+public class DeckTopologyTest {
+
+    private final String testPackFile = "test_pack_topology.txt";
+
+    @AfterEach
+    public void tearDown() {
+        new File(testPackFile).delete();
+        for (int i = 1; i <= 6; i++) {
+            new File("player" + i + "_output.txt").delete();
+            new File("deck" + i + "_output.txt").delete();
+        }
+    }
+
+    // each player's own number 8 times, dealt so nobody starts with four of them
+    private int[] writePack(int players) throws IOException {
+        int[] pack = new int[8 * players];
+        try (PrintWriter writer = new PrintWriter(new FileWriter(testPackFile))) {
+            for (int i = 0; i < pack.length; i++) {
+                pack[i] = (i + i / players) % players + 1;
+                writer.println(pack[i]);
+            }
+        }
+        return pack;
+    }
+
+    @Test
+    @DisplayName("lay out ring, central and neighbour decks")
+    public void testFixedLayouts() {
+        int[][] ring = DeckTopology.parse("ring").layout(4);
+        assertArrayEquals(new int[]{0, 1, 2, 3}, ring[0]);
+        assertArrayEquals(new int[]{1, 2, 3, 0}, ring[1]);
+
+        DeckTopology central = DeckTopology.parse("central");
+        assertEquals(1, central.deckCount(5));
+        assertArrayEquals(new int[5], central.layout(5)[0]);
+        assertArrayEquals(new int[5], central.layout(5)[1]);
+
+        DeckTopology neighbours = DeckTopology.parse("neighbours:3");
+        assertEquals(3, neighbours.deckCount(7));
+        assertArrayEquals(new int[]{0, 0, 0, 1, 1, 1, 2}, neighbours.layout(7)[0]);
+        assertArrayEquals(new int[]{1, 1, 1, 2, 2, 2, 0}, neighbours.layout(7)[1]);
+    }
+
+    @Test
+    @DisplayName("give every random deck a drawer and a discarder, the same way for the same seed")
+    public void testRandomLayout() {
+        DeckTopology random = DeckTopology.parse("random:3:5");
+        int[][] layout = random.layout(10);
+        for (int[] side : layout) {
+            boolean[] used = new boolean[3];
+            for (int deck : side) {
+                used[deck] = true;
+            }
+            assertArrayEquals(new boolean[]{true, true, true}, used);
+        }
+        assertTrue(Arrays.deepEquals(layout, DeckTopology.parse("random:3:5").layout(10)));
+        assertEquals(10, DeckTopology.parse("random").deckCount(10));
+        assertThrows(IllegalArgumentException.class, () -> DeckTopology.parse("random:20").deckCount(10));
+    }
+
+    @Test
+    @DisplayName("read back what toString writes")
+    public void testRoundTrip() {
+        for (String spec : new String[]{"ring", "central", "neighbours:3", "random", "random:3", "random:0:9"}) {
+            DeckTopology topology = DeckTopology.parse(spec);
+            DeckTopology again = DeckTopology.parse(topology.toString());
+            assertEquals(topology.toString(), again.toString(), spec);
+            assertTrue(Arrays.deepEquals(topology.layout(6), again.layout(6)), spec);
+        }
+        assertEquals("random:0:1", DeckTopology.parse("random").toString());
+    }
+
+    @Test
+    @DisplayName("reject topologies that dont parse")
+    public void testBadSpecs() {
+        for (String spec : new String[]{"star", "neighbours", "neighbours:0", "central:2", "random:x", "random:-1", "random:2:y"}) {
+            assertThrows(IllegalArgumentException.class, () -> DeckTopology.parse(spec), spec);
+        }
+        assertThrows(IllegalArgumentException.class, () -> GameOptions.parse(new String[]{"--topology", "star"}));
+    }
+
+    @Test
+    @DisplayName("lock free deck stays first in first out across laps of the ring")
+    public void testConcurrentDeckOrder() {
+        ConcurrentCardDeck deck = new ConcurrentCardDeck(1, 8);
+        assertNull(deck.drawCard());
+        int next = 0;
+        for (int lap = 0; lap < 5; lap++) {
+            for (int i = 0; i < 6; i++) {
+                deck.discardCard(Card.of(lap * 6 + i));
+            }
+            assertEquals(6, deck.size());
+            for (int i = 0; i < 6; i++) {
+                assertEquals(next++, deck.drawCard().getDenomination());
+            }
+        }
+        assertTrue(deck.isEmpty());
+        for (int i = 0; i < 8; i++) {
+            deck.addCard(Card.of(i));
+        }
+        assertEquals("deck1 contents: 0 1 2 3 4 5 6 7", deck.toString());
+        assertThrows(IllegalStateException.class, () -> deck.discardCard(Card.of(8)));
+    }
+
+    @Test
+    @DisplayName("lock free deck never loses or copies a card under many drawers and discarders")
+    public void testConcurrentDeckContention() throws InterruptedException {
+        ConcurrentCardDeck deck = new ConcurrentCardDeck(1, 64);
+        for (int i = 0; i < 64; i++) {
+            deck.addCard(Card.of(i));
+        }
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 6; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    Card card = deck.drawCard();
+                    if (card != null) {
+                        deck.discardCard(card);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        int[] left = deck.getDenominations();
+        Arrays.sort(left);
+        for (int i = 0; i < 64; i++) {
+            assertEquals(i, left[i]);
+        }
+    }
+
+    private void playToTheEnd(String... flags) throws IOException {
+        int[] pack = writePack(6);
+        CardGame game = new CardGame(GameOptions.parse(flags));
+        assertTrue(game.loadPack(6, testPackFile));
+        game.deal();
+        assertTrue(game.play() > 0);
+
+        // every card of the pack is still in a hand or a deck
+        GameSnapshot end = game.captureSnapshot();
+        List<Integer> cards = new ArrayList<>();
+        for (int i = 0; i < end.getNumPlayers(); i++) {
+            for (int card : end.getHand(i)) cards.add(card);
+        }
+        for (int i = 0; i < end.getNumDecks(); i++) {
+            for (int card : end.getDeck(i)) cards.add(card);
+        }
+        int[] left = cards.stream().mapToInt(Integer::intValue).sorted().toArray();
+        Arrays.sort(pack);
+        assertArrayEquals(pack, left);
+    }
+
+    @Test
+    @DisplayName("finish games on shared decks without losing cards")
+    public void testSharedDeckGames() throws IOException {
+        playToTheEnd("--topology", "central", "--concurrent-decks");
+        playToTheEnd("--topology", "neighbours:2");
+        playToTheEnd("--topology", "random:3:7", "--concurrent-decks");
+    }
+}
@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("Discard strategy tests")
+public class DiscardStrategyTest {
+
+    @Test
+    @DisplayName("first strategy discards the first card not equal to player number")
+    public void testFirstNonPreferred() {
+        DiscardStrategy strategy = new FirstNonPreferredStrategy();
+        assertEquals(1, strategy.selectCardToDiscard(new int[]{3, 4, 3, 5, 3}, 5, 3));
+        assertEquals(0, strategy.selectCardToDiscard(new int[]{3, 3, 3, 3, 3}, 5, 3));
+    }
+
+    @Test
+    @DisplayName("frequency strategy keeps the most common denomination")
+    public void testFrequency() {
+        DiscardStrategy strategy = new FrequencyDiscardStrategy();
+        // 7 appears three times, 2 and 9 once, oldest single goes first
+        assertEquals(1, strategy.selectCardToDiscard(new int[]{7, 2, 7, 9, 7}, 5, 1));
+        // own number counts as an extra copy so 1 is kept over the other single
+        assertEquals(3, strategy.selectCardToDiscard(new int[]{1, 6, 6, 4, 6}, 5, 1));
+    }
+
+    @Test
+    @DisplayName("random strategy never discards own number while it has other cards")
+    public void testRandomAvoidsOwnNumber() {
+        DiscardStrategy strategy = new RandomDiscardStrategy(42);
+        int[] hand = {2, 5, 2, 8, 2};
+        for (int i = 0; i < 1000; i++) {
+            int index = strategy.selectCardToDiscard(hand, 5, 2);
+            assertNotEquals(2, hand[index]);
+        }
+    }
+
+    @Test
+    @DisplayName("random strategy repeats for the same seed")
+    public void testRandomSeeded() {
+        DiscardStrategy first = new RandomDiscardStrategy(7);
+        DiscardStrategy second = new RandomDiscardStrategy(7);
+        int[] hand = {1, 2, 3, 4, 5};
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.selectCardToDiscard(hand, 5, 9), second.selectCardToDiscard(hand, 5, 9));
+        }
+    }
+
+    @Test
+    @DisplayName("look up strategies by name")
+    public void testForName() {
+        assertTrue(DiscardStrategy.forName("first", 1) instanceof FirstNonPreferredStrategy);
+        assertTrue(DiscardStrategy.forName("frequency", 1) instanceof FrequencyDiscardStrategy);
+        assertTrue(DiscardStrategy.forName("random:3", 1) instanceof RandomDiscardStrategy);
+        assertThrows(IllegalArgumentException.class, () -> DiscardStrategy.forName("bogus", 1));
+    }
+
+    @Test
+    @DisplayName("player uses its configured strategy")
+    public void testPlayerDelegates() throws InterruptedException {
+        CardDeck drawDeck = new CardDeck(1);
+        CardDeck discardDeck = new CardDeck(2);
+        Player player = new Player(1, drawDeck, discardDeck, new AtomicInteger(0));
+        player.setDiscardStrategy((hand, size, number) -> size - 1);
+        try {
+            player.addCardToHand(new Card(1));
+            player.addCardToHand(new Card(1));
+            player.addCardToHand(new Card(1));
+            player.addCardToHand(new Card(2));
+            drawDeck.addCard(new Card(3));
+            drawDeck.addCard(new Card(1));
+
+            // always throwing the newest card away means the 2 is never replaced
+            player.start();
+            player.join(300);
+            assertEquals("1 1 1 2", player.getHandAsString());
+            assertEquals(2, discardDeck.size());
+        } finally {
+            player.interrupt();
+            player.join();
+            new File("player1_output.txt").delete();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@DisplayName("Distributed game tests")
+public class DistributedCardGameTest {
+
+    private final String testPackFile = "test_pack_distributed.txt";
+
+    @AfterEach
+    public void tearDown() {
+        new File(testPackFile).delete();
+        for (int i = 1; i <= 4; i++) {
+            new File("player" + i + "_output.txt").delete();
+            new File("deck" + i + "_output.txt").delete();
+        }
+    }
+
+    private void writePack(int... cards) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(testPackFile))) {
+            for (int card : cards) {
+                writer.println(card);
+            }
+        }
+    }
+
+    // coordinator and nodes share this JVM but only talk over sockets
+    private int runGame(int nodes, int players) throws Exception {
+        DistributedCardGame.Coordinator coordinator = new DistributedCardGame.Coordinator(0, nodes);
+        ExecutorService executor = Executors.newFixedThreadPool(nodes + 1);
+        try {
+            Future<Integer> result = executor.submit(coordinator::run);
+            for (int i = 0; i < nodes; i++) {
+                DistributedCardGame.Node node =
+                        new DistributedCardGame.Node(coordinator.getPort(), i, nodes, players, testPackFile);
+                executor.submit(node::run);
+            }
+            return result.get(20, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    @DisplayName("split players into contiguous ranges")
+    public void testPlayerRanges() {
+        assertEquals(1, DistributedCardGame.firstPlayer(0, 3, 10));
+        assertEquals(3, DistributedCardGame.lastPlayer(0, 3, 10));
+        assertEquals(4, DistributedCardGame.firstPlayer(1, 3, 10));
+        assertEquals(10, DistributedCardGame.lastPlayer(2, 3, 10));
+    }
+
+    @Test
+    @DisplayName("winner on one node is reported by the coordinator")
+    public void testImmediateWin() throws Exception {
+        writePack(1, 2, 1, 3, 1, 4, 1, 5, 6, 7, 8, 9, 10, 11, 12, 13);
+        assertEquals(1, runGame(2, 2));
+
+        String player2 = new String(Files.readAllBytes(Paths.get("player2_output.txt")));
+        assertTrue(player2.contains("player 1 has informed player 2 that player 1 has won"));
+    }
+
+    @Test
+    @DisplayName("cards cross the node boundary until player 2 wins")
+    public void testCardsFlowBetweenNodes() throws Exception {
+        // player 2 holds three 2s and only gets the last one after player 1 passes it on
+        writePack(5, 2, 6, 2, 7, 2, 8, 9, 2, 10, 3, 11, 4, 12, 14, 13);
+        assertEquals(2, runGame(2, 2));
+
+        String player1 = new String(Files.readAllBytes(Paths.get("player1_output.txt")));
+        assertTrue(player1.contains("player 1 discards a 2 to deck 2"));
+
+        // every card is either in a final hand or a deck output file
+        int cards = 0;
+        for (int i = 1; i <= 2; i++) {
+            String deck = new String(Files.readAllBytes(Paths.get("deck" + i + "_output.txt"))).trim();
+            cards += deck.split(" ").length - 2;
+        }
+        assertEquals(8, cards);
+    }
+
+    @Test
+    @DisplayName("two nodes claiming at once get one winner and the loser is told")
+    public void testCompetingWins() throws Exception {
+        // players 1 and 3 are on different nodes and are both dealt four of a kind
+        int[] pack = new int[32];
+        for (int i = 0; i < 16; i++) {
+            int seat = i % 4;
+            pack[i] = seat == 0 ? 1 : seat == 2 ? 3 : 5 + i;
+        }
+        for (int i = 16; i < 32; i++) {
+            pack[i] = 20 + i;
+        }
+        writePack(pack);
+        int winner = runGame(2, 4);
+        assertTrue(winner == 1 || winner == 3, "winner " + winner);
+        int loser = winner == 1 ? 3 : 1;
+
+        String winnerLog = new String(Files.readAllBytes(Paths.get("player" + winner + "_output.txt")));
+        String loserLog = new String(Files.readAllBytes(Paths.get("player" + loser + "_output.txt")));
+        assertTrue(winnerLog.contains("player " + winner + " wins"));
+        assertFalse(loserLog.contains("player " + loser + " wins"));
+        assertTrue(loserLog.contains("player " + winner + " has informed player " + loser
+                + " that player " + winner + " has won"));
+    }
+}
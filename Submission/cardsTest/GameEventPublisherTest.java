@@ -0,0 +1,303 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+
+@DisplayName("Game event stream tests")
+public class GameEventPublisherTest {
+
+    private final String testPackFile = "test_pack_events.txt";
+
+    @AfterEach
+    public void tearDown() {
+        String[] filesToDelete = {
+            testPackFile,
+            "player1_output.txt", "player2_output.txt",
+            "deck1_output.txt", "deck2_output.txt"
+        };
+        for (String filename : filesToDelete) {
+            new File(filename).delete();
+        }
+    }
+
+    // collects everything, requests one at a time so it can be made slow
+    private static class Collector implements Flow.Subscriber<GameEvent> {
+        final List<GameEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        final long delayMs;
+        Flow.Subscription subscription;
+
+        Collector(long delayMs) {
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(GameEvent event) {
+            events.add(event);
+            if (delayMs > 0) {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        long count(GameEvent.Type type) {
+            return events.stream().filter(e -> e.getType() == type).count();
+        }
+    }
+
+    @Test
+    @DisplayName("publishing with no subscribers does nothing")
+    public void testNoSubscribers() {
+        GameEventPublisher publisher = new GameEventPublisher(4, GameEventPublisher.Policy.DROP, 1);
+        for (int i = 0; i < 100; i++) {
+            publisher.publish(GameEvent.Type.DRAW, 1, 1, 5, i);
+        }
+        assertFalse(publisher.hasSubscribers());
+        assertEquals(0, publisher.getDroppedCount());
+        publisher.close();
+    }
+
+    // counts every call that gets as far as the SubmissionPublisher
+    private static class CountingPublisher extends SubmissionPublisher<GameEvent> {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public boolean hasSubscribers() {
+            calls.incrementAndGet();
+            return super.hasSubscribers();
+        }
+
+        @Override
+        public int offer(GameEvent item, BiPredicate<Flow.Subscriber<? super GameEvent>, ? super GameEvent> onDrop) {
+            calls.incrementAndGet();
+            return super.offer(item, onDrop);
+        }
+
+        @Override
+        public int submit(GameEvent item) {
+            calls.incrementAndGet();
+            return super.submit(item);
+        }
+    }
+
+    @Test
+    @DisplayName("publishing with no subscribers never reaches the submission publisher")
+    public void testNoSubscribersSkipsPublisher() throws InterruptedException {
+        CountingPublisher counting = new CountingPublisher();
+        GameEventPublisher publisher = new GameEventPublisher(counting, GameEventPublisher.Policy.BLOCK, 1);
+        for (int i = 0; i < 100; i++) {
+            publisher.publish(GameEvent.Type.DRAW, 1, 1, 5, i);
+        }
+        assertEquals(0, counting.calls.get());
+
+        // once the only subscriber cancels, publishing stops reaching it again
+        CountDownLatch subscribed = new CountDownLatch(1);
+        Collector collector = new Collector(0) {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                super.onSubscribe(subscription);
+                subscribed.countDown();
+            }
+        };
+        publisher.subscribe(collector);
+        assertTrue(publisher.hasSubscribers());
+        assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+        publisher.publish(GameEvent.Type.DRAW, 1, 1, 5, 1);
+        assertTrue(counting.calls.get() > 0);
+
+        collector.subscription.cancel();
+        assertFalse(publisher.hasSubscribers());
+        int before = counting.calls.get();
+        for (int i = 0; i < 100; i++) {
+            publisher.publish(GameEvent.Type.DRAW, 1, 1, 5, i);
+        }
+        assertEquals(before, counting.calls.get());
+        publisher.close();
+    }
+
+    @Test
+    @DisplayName("a subscriber stops counting once the stream completes")
+    public void testSubscriberCountAfterClose() throws InterruptedException {
+        GameEventPublisher publisher = new GameEventPublisher(4, GameEventPublisher.Policy.DROP, 1);
+        Collector collector = new Collector(0);
+        publisher.subscribe(collector);
+        assertTrue(publisher.hasSubscribers());
+        publisher.close();
+        assertTrue(collector.done.await(5, TimeUnit.SECONDS));
+        assertFalse(publisher.hasSubscribers());
+    }
+
+    @Test
+    @DisplayName("block policy delivers every event to a slow subscriber")
+    public void testBlockPolicy() throws InterruptedException {
+        GameEventPublisher publisher = new GameEventPublisher(2, GameEventPublisher.Policy.BLOCK, 1);
+        Collector collector = new Collector(1);
+        publisher.subscribe(collector);
+        for (int i = 1; i <= 20; i++) {
+            publisher.publish(GameEvent.Type.DISCARD, 1, 2, i, i);
+        }
+        publisher.close();
+
+        assertTrue(collector.done.await(5, TimeUnit.SECONDS));
+        assertEquals(20, collector.events.size());
+        assertEquals(20, collector.events.get(19).getCard());
+        assertEquals(0, publisher.getDroppedCount());
+    }
+
+    @Test
+    @DisplayName("drop policy counts what a slow subscriber missed")
+    public void testDropPolicy() throws InterruptedException {
+        GameEventPublisher publisher = new GameEventPublisher(2, GameEventPublisher.Policy.DROP, 1);
+        Collector collector = new Collector(5);
+        publisher.subscribe(collector);
+        for (int i = 1; i <= 200; i++) {
+            publisher.publish(GameEvent.Type.DRAW, 1, 1, i, i);
+        }
+        publisher.close();
+
+        assertTrue(collector.done.await(5, TimeUnit.SECONDS));
+        assertTrue(publisher.getDroppedCount() > 0);
+        assertEquals(200, collector.events.size() + publisher.getDroppedCount());
+    }
+
+    @Test
+    @DisplayName("sample policy keeps every nth turn and all other events")
+    public void testSamplePolicy() throws InterruptedException {
+        GameEventPublisher publisher = GameEventPublisher.forPolicy("sample:10", 1024);
+        Collector collector = new Collector(0);
+        publisher.subscribe(collector);
+        for (int turn = 1; turn <= 100; turn++) {
+            publisher.publish(GameEvent.Type.DRAW, 1, 1, 3, turn);
+        }
+        publisher.publish(GameEvent.Type.WIN, 1, 0, 0, 100);
+        publisher.close();
+
+        assertTrue(collector.done.await(5, TimeUnit.SECONDS));
+        assertEquals(10, collector.count(GameEvent.Type.DRAW));
+        assertEquals(1, collector.count(GameEvent.Type.WIN));
+    }
+
+    @Test
+    @DisplayName("reject an unknown policy")
+    public void testUnknownPolicy() {
+        assertThrows(IllegalArgumentException.class, () -> GameEventPublisher.forPolicy("sometimes", 16));
+        assertThrows(IllegalArgumentException.class, () -> GameEventPublisher.forPolicy("sample:0", 16));
+    }
+
+    @Test
+    @DisplayName("a stuck blocking subscriber doesnt stop a snapshot being taken")
+    public void testSnapshotWhileSubscriberStuck() throws Exception {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(testPackFile))) {
+            for (int i = 0; i < 16; i++) {
+                writer.println(i % 5 + 5);
+            }
+        }
+        GameOptions options = GameOptions.parse(new String[]{"--event-policy", "block", "--event-buffer", "1",
+                                                             "--max-turns", "200"});
+        CardGame game = new CardGame(options);
+        CountDownLatch stuck = new CountDownLatch(1);
+        CountDownLatch unstick = new CountDownLatch(1);
+        game.getEventPublisher().subscribe(new Collector(0) {
+            @Override
+            public void onNext(GameEvent event) {
+                if (event.getType() == GameEvent.Type.DRAW && stuck.getCount() > 0) {
+                    stuck.countDown();
+                    try {
+                        unstick.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.onNext(event);
+            }
+        });
+
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            assertTrue(game.loadPack(2, testPackFile));
+            game.deal();
+            Thread playing = new Thread(game::play);
+            playing.setDaemon(true);
+            playing.start();
+            assertTrue(stuck.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50); // let the players fill the buffer and block on it
+
+            // players wait on the full buffer outside their turn, so the gate can close
+            Thread capturing = new Thread(game::captureSnapshot);
+            capturing.setDaemon(true); // dont keep the JVM up if it hangs
+            capturing.start();
+            capturing.join(5000);
+            boolean captured = !capturing.isAlive();
+            unstick.countDown();
+            playing.join(10000);
+            assertTrue(captured);
+            assertFalse(playing.isAlive());
+        } finally {
+            unstick.countDown();
+            System.setOut(originalOut);
+        }
+    }
+
+    @Test
+    @DisplayName("stream a whole game in process")
+    public void testWholeGame() throws IOException, InterruptedException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(testPackFile))) {
+            for (int card : new int[]{1, 2, 1, 3, 1, 4, 2, 5, 1, 6, 7, 8, 9, 10, 11, 12}) {
+                writer.println(card);
+            }
+        }
+        GameOptions options = GameOptions.parse(new String[]{"--event-policy", "block"});
+        CardGame game = new CardGame(options);
+        Collector collector = new Collector(0);
+        game.getEventPublisher().subscribe(collector);
+
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        int winner;
+        try {
+            assertTrue(game.loadPack(2, testPackFile));
+            game.deal();
+            winner = game.play();
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertTrue(collector.done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, winner);
+        assertEquals(16, collector.count(GameEvent.Type.DEAL));
+        assertEquals(1, collector.count(GameEvent.Type.WIN));
+        assertEquals(2, collector.count(GameEvent.Type.EXIT));
+        assertEquals(collector.count(GameEvent.Type.DRAW), collector.count(GameEvent.Type.DISCARD));
+    }
+}
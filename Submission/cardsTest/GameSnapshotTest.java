@@ -0,0 +1,226 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("GameSnapshot class tests")
+public class GameSnapshotTest {
+
+    private final String snapshotFile = "test_snapshot.bin";
+    private final String testPackFile = "test_pack_snapshot.txt";
+
+    @AfterEach
+    public void tearDown() {
+        String[] filesToDelete = {
+            snapshotFile,
+            testPackFile
+        };
+        for (String filename : filesToDelete) {
+            new File(filename).delete();
+        }
+        for (int i = 1; i <= 4; i++) {
+            new File("player" + i + "_output.txt").delete();
+            new File("deck" + i + "_output.txt").delete();
+        }
+    }
+
+    // nobody prefers 5 to 9 and four of a kind is never dealt, so only the turn budget ends the game
+    private void writeEndlessPack() throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(testPackFile))) {
+            for (int i = 0; i < 32; i++) {
+                writer.println(i % 5 + 5);
+            }
+        }
+    }
+
+    private List<String> log(int player) throws IOException {
+        return Files.readAllLines(Paths.get("player" + player + "_output.txt"));
+    }
+
+    private String joined(int[] cards) {
+        StringBuilder sb = new StringBuilder();
+        for (int card : cards) {
+            sb.append(sb.length() == 0 ? "" : " ").append(card);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    @DisplayName("round trip hands, decks, turns and winner through a file")
+    public void testRoundTrip() throws IOException {
+        int[][] hands = { {1, 2, 300, 4}, {5, 5, 5, 70000} };
+        int[][] decks = { {9, 8}, {} };
+        GameSnapshot snapshot = new GameSnapshot(2, 0, new int[]{12, 11}, hands, decks);
+
+        snapshot.writeToFile(snapshotFile);
+        GameSnapshot loaded = GameSnapshot.readFromFile(snapshotFile);
+
+        assertEquals(2, loaded.getNumPlayers());
+        assertEquals(0, loaded.getWinningPlayer());
+        assertEquals(12, loaded.getTurnCount(0));
+        assertEquals(11, loaded.getTurnCount(1));
+        assertArrayEquals(hands[0], loaded.getHand(0));
+        assertArrayEquals(hands[1], loaded.getHand(1));
+        assertArrayEquals(decks[0], loaded.getDeck(0));
+        assertArrayEquals(decks[1], loaded.getDeck(1));
+    }
+
+    @Test
+    @DisplayName("reject a file that isnt a snapshot")
+    public void testRejectGarbage() throws IOException {
+        Files.write(Paths.get(snapshotFile), "not a snapshot".getBytes());
+        assertThrows(IOException.class, () -> GameSnapshot.readFromFile(snapshotFile));
+    }
+
+    @Test
+    @DisplayName("resume a game from a snapshot and append to player output")
+    public void testResumeFromSnapshot() throws IOException {
+        Files.write(Paths.get("player1_output.txt"), "player 1 initial hand 1 1 1 2\n".getBytes());
+        int[][] hands = { {1, 1, 1, 1}, {2, 3, 4, 5} };
+        int[][] decks = { {6, 7, 8, 9}, {10, 11, 12, 13} };
+        new GameSnapshot(2, 0, new int[]{3, 3}, hands, decks).writeToFile(snapshotFile);
+
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream outputContent = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputContent));
+        try {
+            CardGame.main(new String[]{"--resume", snapshotFile});
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertTrue(outputContent.toString().contains("player 1 wins"));
+        String content = new String(Files.readAllBytes(Paths.get("player1_output.txt")));
+        assertTrue(content.startsWith("player 1 initial hand 1 1 1 2"));
+        assertTrue(content.contains("player 1 final hand: 1 1 1 1"));
+    }
+
+    @Test
+    @DisplayName("capture a consistent snapshot of a fresh game")
+    public void testCaptureSnapshot() {
+        CardGame game = new CardGame();
+        GameSnapshot snapshot = game.captureSnapshot();
+        assertEquals(0, snapshot.getWinningPlayer());
+        assertEquals(0, snapshot.getNumDecks());
+    }
+
+    // hangs the second write of any file, the first is the initial hand and the second a player's first turn
+    private static class StuckPool extends OutputFilePool {
+        final AtomicInteger writes = new AtomicInteger();
+        final CountDownLatch stuck = new CountDownLatch(1);
+        final CountDownLatch unstick = new CountDownLatch(1);
+
+        StuckPool() {
+            super(4);
+        }
+
+        @Override
+        void write(OutputFile file, ByteBuffer data) throws IOException {
+            if (writes.incrementAndGet() == 2) {
+                stuck.countDown();
+                try {
+                    unstick.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            super.write(file, data);
+        }
+    }
+
+    @Test
+    @DisplayName("a player stuck writing its log doesnt hold up a snapshot")
+    public void testQuiesceDuringSlowWrite() throws Exception {
+        CardDeck drawDeck = new CardDeck(1);
+        CardDeck discardDeck = new CardDeck(2);
+        for (int card : new int[]{6, 7, 8, 9}) {
+            drawDeck.addCard(new Card(card));
+        }
+        Player player = new Player(1, drawDeck, discardDeck, new AtomicInteger());
+        for (int card : new int[]{5, 6, 7, 8}) {
+            player.addCardToHand(new Card(card));
+        }
+        StuckPool pool = new StuckPool();
+        player.setOutputPool(pool);
+        TurnGate gate = new TurnGate();
+        player.setTurnGate(gate);
+        player.start();
+        try {
+            assertTrue(pool.stuck.await(5, TimeUnit.SECONDS));
+            Thread quiescing = new Thread(() -> gate.quiesce(Arrays.asList(player)));
+            quiescing.setDaemon(true);
+            quiescing.start();
+            quiescing.join(5000);
+            assertFalse(quiescing.isAlive(), "quiesce waited for the disk write");
+            assertEquals(1, player.getTurnCount());
+        } finally {
+            gate.release();
+            pool.unstick.countDown();
+            player.interrupt();
+            player.join(5000);
+        }
+    }
+
+    @Test
+    @DisplayName("capture a game mid play, resume it and cut the logs back to the checkpoint")
+    public void testCaptureAndResumeMidGame() throws Exception {
+        writeEndlessPack();
+        GameOptions options = new GameOptions();
+        options.maxTurns = 2000;
+        options.cycleRepeats = 0;
+        CardGame game = new CardGame(options);
+        assertTrue(game.loadPack(4, testPackFile));
+        game.deal();
+        Thread playing = new Thread(game::play);
+        playing.start();
+        GameSnapshot mid;
+        do {
+            Thread.sleep(20);
+            mid = game.captureSnapshot();
+        } while (mid.getTotalTurns() < 40 && playing.isAlive());
+        mid.writeToFile(snapshotFile);
+        // the game runs on past the checkpoint, as if it crashed later
+        playing.join();
+        assertEquals(CardGame.ABORTED, game.getWinningPlayer());
+        assertEquals(0, mid.getWinningPlayer());
+        assertTrue(log(1).size() > 1 + 3 * mid.getTurnCount(0));
+
+        GameOptions resumeOptions = new GameOptions();
+        resumeOptions.maxTurns = mid.getTotalTurns() + 200;
+        resumeOptions.cycleRepeats = 0;
+        CardGame resumed = new CardGame(resumeOptions);
+        assertTrue(resumed.resumeFromSnapshot(snapshotFile));
+
+        GameSnapshot restored = resumed.captureSnapshot();
+        for (int i = 0; i < 4; i++) {
+            assertArrayEquals(mid.getHand(i), restored.getHand(i));
+            assertArrayEquals(mid.getDeck(i), restored.getDeck(i));
+            assertEquals(mid.getTurnCount(i), restored.getTurnCount(i));
+
+            // initial hand and three lines a turn, the last one showing the hand the snapshot has
+            List<String> lines = log(i + 1);
+            assertEquals(1 + 3 * mid.getTurnCount(i), lines.size());
+            if (mid.getTurnCount(i) > 0) {
+                assertEquals("player " + (i + 1) + " current hand is " + joined(mid.getHand(i)),
+                        lines.get(lines.size() - 1));
+            }
+        }
+
+        resumed.play();
+        List<String> lines = log(1);
+        int turns = resumed.getPlayers().get(0).getTurnCount();
+        assertTrue(lines.get(1 + 3 * mid.getTurnCount(0)).startsWith("player 1 draws a"));
+        assertEquals("player 1 current hand is " + joined(resumed.getPlayers().get(0).getHandDenominations()),
+                lines.get(3 * turns));
+    }
+}
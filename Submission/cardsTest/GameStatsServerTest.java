@@ -0,0 +1,121 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+@DisplayName("Live stats server tests")
+public class GameStatsServerTest {
+
+    private final String testPackFile = "test_pack_stats.txt";
+    private final PrintStream originalOut = System.out;
+
+    @AfterEach
+    public void tearDown() {
+        System.setOut(originalOut);
+        String[] filesToDelete = {
+            testPackFile,
+            "player1_output.txt", "player2_output.txt",
+            "deck1_output.txt", "deck2_output.txt"
+        };
+        for (String filename : filesToDelete) {
+            new File(filename).delete();
+        }
+    }
+
+    private CardGame dealGame() throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(testPackFile))) {
+            for (int card : new int[]{1, 2, 1, 3, 1, 4, 2, 5, 1, 6, 7, 8, 9, 10, 11, 12}) {
+                writer.println(card);
+            }
+        }
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        CardGame game = new CardGame();
+        assertTrue(game.loadPack(2, testPackFile));
+        game.deal();
+        return game;
+    }
+
+    private String get(int port, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + "/stats").openConnection();
+        connection.setRequestMethod(method);
+        try {
+            if (connection.getResponseCode() != 200) {
+                return "HTTP " + connection.getResponseCode();
+            }
+            assertEquals("application/json", connection.getHeaderField("Content-Type"));
+            try (InputStream in = connection.getInputStream()) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    @DisplayName("serve deck sizes and turn counts of a dealt game")
+    public void testStatsBeforeStart() throws IOException {
+        CardGame game = dealGame();
+        GameStatsServer server = new GameStatsServer(game, 0);
+        server.start();
+        try {
+            String json = get(server.getPort(), "GET");
+            assertTrue(json.startsWith("{") && json.endsWith("}"));
+            assertTrue(json.contains("\"state\":\"running\""));
+            assertTrue(json.contains("\"players\":2"));
+            assertTrue(json.contains("\"totalTurns\":0"));
+            assertTrue(json.contains("\"deckSizes\":[4,4]"));
+            assertTrue(json.contains("\"playerTurns\":[0,0]"));
+            assertTrue(json.contains("\"heapUsed\":"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("only answer GET")
+    public void testRejectPost() throws IOException {
+        CardGame game = dealGame();
+        GameStatsServer server = new GameStatsServer(game, 0);
+        server.start();
+        try {
+            assertEquals("HTTP 405", get(server.getPort(), "POST"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("report the winner once the game is over")
+    public void testStatsAfterWin() throws IOException {
+        CardGame game = dealGame();
+        GameStatsServer server = new GameStatsServer(game, 0);
+        server.start();
+        try {
+            assertEquals(1, game.play());
+            String json = get(server.getPort(), "GET");
+            assertTrue(json.contains("\"state\":\"won\""));
+            assertTrue(json.contains("\"winner\":1"));
+            // cards are conserved, 8 in hands and 8 left across the two decks
+            int start = json.indexOf("\"deckSizes\":[") + 13;
+            int total = 0;
+            for (String size : json.substring(start, json.indexOf(']', start)).split(",")) {
+                total += Integer.parseInt(size);
+            }
+            assertEquals(8, total);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("reject a bad port")
+    public void testBadPort() {
+        assertThrows(IllegalArgumentException.class, () -> GameOptions.parse(new String[]{"--stats-port", "70000"}));
+        assertEquals(0, GameOptions.parse(new String[]{"--stats-port", "0"}).statsPort);
+    }
+}
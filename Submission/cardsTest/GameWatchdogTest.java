@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+@DisplayName("Unwinnable pack and watchdog tests")
+public class GameWatchdogTest {
+
+    private final String testPackFile = "test_pack_watchdog.txt";
+    private final String validPackFile = "test_pack_valid.txt";
+    private final ByteArrayOutputStream outputContent = new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+    private final InputStream originalIn = System.in;
+
+    @BeforeEach
+    public void setUp() {
+        System.setOut(new PrintStream(outputContent));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.setOut(originalOut);
+        System.setIn(originalIn);
+        String[] filesToDelete = {
+            testPackFile, validPackFile,
+            "player1_output.txt", "player2_output.txt",
+            "deck1_output.txt", "deck2_output.txt"
+        };
+        for (String filename : filesToDelete) {
+            new File(filename).delete();
+        }
+    }
+
+    private void writePack(String filename, int... cards) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            for (int card : cards) {
+                writer.println(card);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("count denominations in a pack")
+    public void testHistogram() {
+        PackAnalysis analysis = new PackAnalysis(new int[]{3, 1, 3, 3, 7, 3, 1});
+        assertEquals(7, analysis.getCardCount());
+        assertEquals(3, analysis.getDistinctDenominations());
+        assertEquals(4, analysis.getCount(3));
+        assertEquals(2, analysis.getCount(1));
+        assertEquals(0, analysis.getCount(5));
+        assertEquals(3, analysis.getMostCommonDenomination());
+        assertTrue(analysis.isWinnable());
+    }
+
+    @Test
+    @DisplayName("handle huge denominations")
+    public void testLargeDenominations() {
+        int big = Integer.MAX_VALUE;
+        PackAnalysis analysis = new PackAnalysis(new int[]{big, 0, big, big});
+        assertEquals(3, analysis.getCount(big));
+        assertFalse(analysis.isWinnable());
+    }
+
+    @Test
+    @DisplayName("reject a pack where nobody can ever win")
+    public void testRejectUnwinnablePack() throws IOException {
+        writePack(testPackFile, 1, 1, 1, 2, 2, 2, 3, 3, 3, 4, 4, 4, 5, 5, 5, 6);
+        writePack(validPackFile, 1, 2, 1, 3, 1, 4, 1, 5, 6, 7, 8, 9, 10, 11, 12, 13);
+        System.setIn(new ByteArrayInputStream(("2\n" + testPackFile + "\n" + validPackFile + "\n").getBytes()));
+
+        CardGame.main(new String[]{});
+
+        String output = outputContent.toString();
+        assertTrue(output.contains("nobody could ever win with this pack"));
+        assertTrue(output.contains("player 1 wins"));
+    }
+
+    @Test
+    @DisplayName("stop a game that uses up its turn budget")
+    public void testTurnBudget() throws IOException {
+        // the four 5s never line up so the cards just go round forever
+        writePack(testPackFile, 5, 3, 6, 4, 5, 7, 8, 9, 10, 5, 11, 12, 13, 5, 14, 15);
+        System.setIn(new ByteArrayInputStream(("2\n" + testPackFile + "\n").getBytes()));
+
+        CardGame.main(new String[]{"--max-turns", "100", "--watchdog-interval", "20"});
+
+        String output = outputContent.toString();
+        assertTrue(output.contains("Game stopped with no winner: turn budget of 100 turns"));
+        String player1 = new String(Files.readAllBytes(Paths.get("player1_output.txt")));
+        assertTrue(player1.contains("player 1 exits"));
+        assertFalse(player1.contains("has informed"));
+    }
+
+    @Test
+    @DisplayName("hash card positions in place the same way a snapshot does")
+    public void testPositionFingerprint() throws IOException {
+        writePack(testPackFile, 5, 3, 6, 4, 5, 7, 8, 9, 10, 5, 11, 12, 13, 5, 14, 15);
+        String[][] deckFlags = {{}, {"--off-heap-decks"}, {"--concurrent-decks"}};
+        for (String[] flags : deckFlags) {
+            CardGame game = new CardGame(GameOptions.parse(flags));
+            assertTrue(game.loadPack(2, testPackFile));
+            game.deal();
+            assertEquals(game.captureSnapshot().fingerprint(), game.positionFingerprint());
+        }
+    }
+
+    @Test
+    @DisplayName("spot a stalled game without waiting for the players to stop")
+    public void testStallWithPlayerMidTurn() throws Exception {
+        writePack(testPackFile, 5, 3, 6, 4, 5, 7, 8, 9, 10, 5, 11, 12, 13, 5, 14, 15);
+        CardGame game = new CardGame(new GameOptions());
+        assertTrue(game.loadPack(2, testPackFile));
+        game.deal();
+        // a player that never leaves its turn, a snapshot would wait on it forever
+        game.getPlayers().get(0).inTurn = true;
+
+        GameWatchdog watchdog = new GameWatchdog(game, 20, 0, 0, 3);
+        watchdog.start();
+        watchdog.join(5000);
+        assertFalse(watchdog.isAlive());
+        assertEquals(CardGame.ABORTED, game.getWinningPlayer());
+    }
+}
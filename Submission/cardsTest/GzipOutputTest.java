@@ -0,0 +1,111 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.GZIPInputStream;
+
+@DisplayName("Compressed output tests")
+public class GzipOutputTest {
+
+    private static final String NL = System.lineSeparator();
+    private final String testFile = "test_gzip.txt";
+    private final String testPackFile = "test_pack_gzip.txt";
+    private final Path here = Paths.get(".");
+
+    @AfterEach
+    public void tearDown() {
+        new File(testFile + ".gz").delete();
+        new File(testPackFile).delete();
+        for (int i = 1; i <= 2; i++) {
+            new File("player" + i + "_output.txt.gz").delete();
+            new File("deck" + i + "_output.txt.gz").delete();
+        }
+    }
+
+    @Test
+    @DisplayName("write a file any gzip reader can read")
+    public void testRoundTrip() throws IOException {
+        OutputFilePool pool = new OutputFilePool(4, 1024);
+        OutputFile file = pool.openFile(testFile, false);
+        assertEquals(testFile + ".gz", file.getFilename());
+        for (int i = 0; i < 500; i++) {
+            file.println("player 1 draws a " + i + " from deck 1");
+            file.flush();
+        }
+        file.close();
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            expected.append("player 1 draws a ").append(i).append(" from deck 1").append(NL);
+        }
+        try (InputStream in = new GZIPInputStream(new FileInputStream(testFile + ".gz"))) {
+            assertEquals(expected.toString(), new String(in.readAllBytes()));
+        }
+        assertEquals(expected.toString(), OutputFileReader.readString(here, testFile));
+        assertTrue(Files.size(Paths.get(testFile + ".gz")) < expected.length() / 3);
+    }
+
+    @Test
+    @DisplayName("finished blocks can be read while the file is still open")
+    public void testPartialFile() throws IOException {
+        OutputFilePool pool = new OutputFilePool(4, 256);
+        OutputFile file = pool.openFile(testFile, false);
+        for (int i = 0; i < 100; i++) {
+            file.println("line " + i);
+            file.flush();
+        }
+
+        String partial = OutputFileReader.readString(here, testFile);
+        assertTrue(partial.startsWith("line 0" + NL));
+        assertTrue(partial.endsWith(NL));
+        assertTrue(partial.length() < 100 * 8);
+
+        file.close();
+        assertTrue(OutputFileReader.readString(here, testFile).endsWith("line 99" + NL));
+    }
+
+    @Test
+    @DisplayName("appending adds to what is already there")
+    public void testAppend() throws IOException {
+        OutputFilePool pool = new OutputFilePool(4, 1024);
+        OutputFile first = pool.openFile(testFile, false);
+        first.println("before");
+        first.close();
+        OutputFile second = pool.openFile(testFile, true);
+        second.println("after");
+        second.close();
+        assertEquals("before" + NL + "after" + NL, OutputFileReader.readString(here, testFile));
+    }
+
+    @Test
+    @DisplayName("play a game with compressed logs and check them")
+    public void testGame() throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(testPackFile))) {
+            for (int card : new int[]{1, 2, 1, 3, 1, 4, 2, 5, 1, 6, 7, 8, 9, 10, 11, 12}) {
+                writer.println(card);
+            }
+        }
+        PrintStream originalOut = System.out;
+        InputStream originalIn = System.in;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        System.setIn(new ByteArrayInputStream(("2\n" + testPackFile + "\n").getBytes()));
+        try {
+            CardGame.main(new String[]{"--gzip-output"});
+        } finally {
+            System.setOut(originalOut);
+            System.setIn(originalIn);
+        }
+
+        assertFalse(new File("player1_output.txt").exists());
+        assertTrue(OutputFileReader.readString(here, "player1_output.txt").contains("player 1 wins"));
+        LogAnalyzer analyzer = new LogAnalyzer(2, here);
+        assertTrue(analyzer.loadPack(testPackFile));
+        LogAnalyzer.Report report = analyzer.analyze();
+        assertTrue(report.isValid(), report.toString());
+    }
+}
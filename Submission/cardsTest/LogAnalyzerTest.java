@@ -0,0 +1,193 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@DisplayName("Log analyzer tests")
+public class LogAnalyzerTest {
+
+    private final String testPackFile = "test_pack_analyzer.txt";
+    private final Path here = Paths.get(".");
+
+    @AfterEach
+    public void tearDown() {
+        new File(testPackFile).delete();
+        for (int i = 1; i <= 4; i++) {
+            new File("player" + i + "_output.txt").delete();
+            new File("deck" + i + "_output.txt").delete();
+        }
+    }
+
+    private void write(String filename, String... lines) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            for (String line : lines) {
+                writer.println(line);
+            }
+        }
+    }
+
+    // player 1 draws a 1 and wins on its first turn, player 2 never gets a turn
+    private void writeShortGame() throws IOException {
+        write("player1_output.txt",
+            "player 1 initial hand 1 1 1 2",
+            "player 1 draws a 1 from deck 1",
+            "player 1 discards a 2 to deck 2",
+            "player 1 current hand is 1 1 1 1",
+            "player 1 wins",
+            "player 1 exits",
+            "player 1 final hand: 1 1 1 1");
+        write("player2_output.txt",
+            "player 2 initial hand 2 3 4 5",
+            "player 1 has informed player 2 that player 1 has won",
+            "player 2 exits",
+            "player 2 final hand: 2 3 4 5");
+        write("deck1_output.txt", "deck1 contents: 7 9 11");
+        write("deck2_output.txt", "deck2 contents: 6 8 10 12 2");
+        write(testPackFile, "1", "2", "1", "3", "1", "4", "2", "5", "1", "6", "7", "8", "9", "10", "11", "12");
+    }
+
+    @Test
+    @DisplayName("pass a consistent set of logs")
+    public void testValidLogs() throws IOException {
+        writeShortGame();
+        LogAnalyzer analyzer = new LogAnalyzer(2, here);
+        assertTrue(analyzer.loadPack(testPackFile));
+        LogAnalyzer.Report report = analyzer.analyze();
+        assertTrue(report.isValid(), report.toString());
+        assertEquals(1, report.getWinner());
+        assertEquals(1, report.getTotalTurns());
+        assertEquals(16, report.getCardsLeft());
+    }
+
+    @Test
+    @DisplayName("catch a deck that lost a discard")
+    public void testLostDiscard() throws IOException {
+        writeShortGame();
+        write("deck2_output.txt", "deck2 contents: 6 8 10 12");
+        LogAnalyzer.Report report = new LogAnalyzer(2, here).analyze();
+        assertFalse(report.isValid());
+        assertTrue(report.getErrors().stream().anyMatch(e -> e.contains("deck2")));
+    }
+
+    @Test
+    @DisplayName("catch a hand that doesnt follow from the draws and discards")
+    public void testBadHand() throws IOException {
+        writeShortGame();
+        write("player2_output.txt",
+            "player 2 initial hand 2 3 4 5",
+            "player 1 has informed player 2 that player 1 has won",
+            "player 2 exits",
+            "player 2 final hand: 2 3 4 6");
+        LogAnalyzer.Report report = new LogAnalyzer(2, here).analyze();
+        assertFalse(report.isValid());
+        assertTrue(report.getErrors().stream().anyMatch(e -> e.startsWith("player2_output.txt:4")));
+    }
+
+    @Test
+    @DisplayName("accept either copy of a duplicate card being discarded")
+    public void testDuplicateDiscard() throws IOException {
+        writeShortGame();
+        write("player2_output.txt",
+            "player 2 initial hand 2 3 4 5",
+            "player 1 has informed player 2 that player 1 has won",
+            "player 2 exits",
+            "player 2 final hand: 2 3 4 5");
+        write("player1_output.txt",
+            "player 1 initial hand 2 1 1 1",
+            "player 1 draws a 1 from deck 1",
+            "player 1 discards a 2 to deck 2",
+            "player 1 current hand is 1 1 1 1",
+            "player 1 wins",
+            "player 1 exits",
+            "player 1 final hand: 1 1 1 1");
+        assertTrue(new LogAnalyzer(2, here).analyze().isValid());
+
+        // throws the drawn 2 and keeps the dealt one, so the order isnt what removing the first 2 gives
+        write("player1_output.txt",
+            "player 1 initial hand 2 3 1 1",
+            "player 1 draws a 2 from deck 1",
+            "player 1 discards a 2 to deck 2",
+            "player 1 current hand is 2 3 1 1",
+            "player 1 draws a 1 from deck 1",
+            "player 1 discards a 3 to deck 2",
+            "player 1 current hand is 2 1 1 1",
+            "player 1 exits",
+            "player 1 final hand: 2 1 1 1");
+        LogAnalyzer.Report report = new LogAnalyzer(2, here).analyze();
+        assertTrue(report.getErrors().stream().noneMatch(e -> e.startsWith("player1_output.txt")), report.toString());
+    }
+
+    @Test
+    @DisplayName("turn away logs from a game that wasnt played on a ring")
+    public void testNotRing() throws IOException {
+        writeShortGame();
+        // --topology central, both players draw from and discard to deck 1
+        write("player1_output.txt",
+            "player 1 initial hand 1 1 1 2",
+            "player 1 draws a 1 from deck 1",
+            "player 1 discards a 2 to deck 1",
+            "player 1 current hand is 1 1 1 1",
+            "player 1 wins",
+            "player 1 exits",
+            "player 1 final hand: 1 1 1 1");
+        new File("deck2_output.txt").delete();
+        LogAnalyzer.Report report = new LogAnalyzer(2, here).analyze();
+        assertEquals(1, report.getErrorCount(), report.toString());
+        assertTrue(report.getErrors().get(0).startsWith("player1_output.txt:3 discards to a deck other than deck 2"));
+        assertTrue(report.getErrors().get(0).contains("only ring games can be checked"));
+    }
+
+    @Test
+    @DisplayName("catch logs that dont match the pack")
+    public void testWrongPack() throws IOException {
+        writeShortGame();
+        write(testPackFile, "1", "2", "1", "3", "1", "4", "2", "5", "3", "6", "7", "8", "9", "10", "11", "12");
+        LogAnalyzer analyzer = new LogAnalyzer(2, here);
+        assertTrue(analyzer.loadPack(testPackFile));
+        assertFalse(analyzer.analyze().isValid());
+    }
+
+    @Test
+    @DisplayName("catch two winners and missing files")
+    public void testTwoWinners() throws IOException {
+        writeShortGame();
+        write("player2_output.txt",
+            "player 2 initial hand 2 2 2 2",
+            "player 2 wins",
+            "player 2 exits",
+            "player 2 final hand: 2 2 2 2");
+        new File("deck1_output.txt").delete();
+        LogAnalyzer.Report report = new LogAnalyzer(2, here).analyze();
+        assertTrue(report.getErrors().contains("players 1 and 2 both won"));
+        assertTrue(report.getErrors().contains("missing deck1_output.txt"));
+    }
+
+    @Test
+    @DisplayName("verify the logs of a real 4 player game")
+    public void testRealGame() throws IOException {
+        write(testPackFile, "1", "2", "3", "4", "1", "2", "3", "4", "1", "2", "3", "4", "5", "6", "7", "8",
+            "1", "2", "3", "4", "5", "6", "7", "8", "1", "2", "3", "4", "5", "6", "7", "8");
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            CardGame game = new CardGame();
+            assertTrue(game.loadPack(4, testPackFile));
+            game.deal();
+            game.play();
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        LogAnalyzer analyzer = new LogAnalyzer(4, here);
+        assertTrue(analyzer.loadPack(testPackFile));
+        LogAnalyzer.Report report = analyzer.analyze();
+        assertTrue(report.isValid(), report.toString());
+        assertTrue(report.getWinner() >= 1 && report.getWinner() <= 4);
+        assertTrue(Files.exists(Paths.get("deck4_output.txt")));
+    }
+}
@@ -0,0 +1,138 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@DisplayName("OffHeapCardDeck class tests")
+public class OffHeapCardDeckTest {
+
+    private DeckArena arena;
+    private OffHeapCardDeck deck;
+
+    @BeforeEach
+    public void setUp() {
+        arena = new DeckArena();
+        deck = new OffHeapCardDeck(1, arena);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        arena.close();
+        new File("deck1_output.txt").delete();
+    }
+
+    @Test
+    @DisplayName("keep FIFO order across growing the buffer")
+    public void testFifoWithGrowth() {
+        for (int i = 0; i < 10; i++) {
+            deck.addCard(new Card(i));
+        }
+        // move head forward so the ring wraps before it grows
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, deck.drawCard().getDenomination());
+        }
+        for (int i = 10; i < 100; i++) {
+            deck.discardCard(new Card(i));
+        }
+        assertEquals(95, deck.size());
+        for (int i = 5; i < 100; i++) {
+            assertEquals(i, deck.drawCard().getDenomination());
+        }
+        assertTrue(deck.isEmpty());
+        assertNull(deck.drawCard());
+    }
+
+    @Test
+    @DisplayName("write the same output as a normal deck")
+    public void testFileOutput() throws IOException {
+        deck.addCard(new Card(1));
+        deck.addCard(new Card(3));
+        deck.addCard(new Card(3));
+        deck.addCard(new Card(7));
+        assertArrayEquals(new int[]{1, 3, 3, 7}, deck.getDenominations());
+
+        deck.writeToFile("deck1_output.txt");
+        String content = new String(Files.readAllBytes(Paths.get("deck1_output.txt")));
+        assertEquals("deck1 contents: 1 3 3 7", content.trim());
+    }
+
+    @Test
+    @DisplayName("handle concurrent operations")
+    public void testThreadSafety() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    deck.discardCard(new Card(i));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(8000, deck.size());
+    }
+
+    @Test
+    @DisplayName("free everything when the arena closes")
+    public void testArenaClose() {
+        for (int i = 0; i < 1000; i++) {
+            deck.addCard(new Card(i));
+        }
+        assertTrue(arena.getAllocatedBytes() >= 1000 * Integer.BYTES);
+        arena.close();
+        assertEquals(0, arena.getAllocatedBytes());
+        assertThrows(IllegalStateException.class, () -> new OffHeapCardDeck(2, arena));
+    }
+
+    @Test
+    @DisplayName("refuse to touch a deck once its arena has freed the memory")
+    public void testUseAfterClose() {
+        deck.addCard(new Card(4));
+        arena.close();
+        assertTrue(arena.isClosed());
+        assertThrows(IllegalStateException.class, deck::drawCard);
+        assertThrows(IllegalStateException.class, () -> deck.discardCard(new Card(5)));
+        assertThrows(IllegalStateException.class, deck::getDenominations);
+        assertThrows(IllegalStateException.class, deck::toString);
+    }
+
+    @Test
+    @DisplayName("run a whole game on off heap decks")
+    public void testGameWithOffHeapDecks() throws IOException {
+        String packFile = "test_pack_offheap.txt";
+        try (PrintWriter writer = new PrintWriter(new FileWriter(packFile))) {
+            for (int card : new int[]{1, 2, 1, 3, 1, 4, 1, 5, 6, 7, 8, 9, 10, 11, 12, 13}) {
+                writer.println(card);
+            }
+        }
+        PrintStream originalOut = System.out;
+        InputStream originalIn = System.in;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output));
+        System.setIn(new ByteArrayInputStream(("2\n" + packFile + "\n").getBytes()));
+        try {
+            CardGame.main(new String[]{"--off-heap-decks"});
+            assertTrue(output.toString().contains("player 1 wins"));
+            String deck2 = new String(Files.readAllBytes(Paths.get("deck2_output.txt")));
+            // player 2 may get a few turns in before it sees player 1 has won, each one takes the
+            // front card of deck 2, so whats left is always the end of the dealt cards
+            String left = deck2.trim().substring("deck2 contents:".length()).trim();
+            assertTrue(" 7 9 11 13".endsWith(left.isEmpty() ? "" : " " + left), deck2);
+        } finally {
+            System.setOut(originalOut);
+            System.setIn(originalIn);
+            new File(packFile).delete();
+            for (String file : new String[]{"player1_output.txt", "player2_output.txt", "deck2_output.txt"}) {
+                new File(file).delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+@DisplayName("OutputFilePool class tests")
+public class OutputFilePoolTest {
+
+    private static final String NL = System.lineSeparator();
+
+    @AfterEach
+    public void tearDown() {
+        for (int i = 0; i < 5; i++) {
+            new File("test_pool_" + i + ".txt").delete();
+        }
+    }
+
+    private String read(String filename) throws IOException {
+        return new String(Files.readAllBytes(Paths.get(filename)));
+    }
+
+    @Test
+    @DisplayName("never keep more files open than the capacity")
+    public void testBoundedOpenFiles() throws IOException {
+        OutputFilePool pool = new OutputFilePool(2);
+        OutputFile[] files = new OutputFile[5];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = pool.openFile("test_pool_" + i + ".txt", false);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < files.length; i++) {
+                files[i].println("file " + i + " line " + round);
+                files[i].flush();
+                assertTrue(pool.getOpenCount() <= 2);
+            }
+        }
+        for (OutputFile file : files) {
+            file.close();
+        }
+        assertEquals(0, pool.getOpenCount());
+
+        // reopened files append so nothing is lost
+        for (int i = 0; i < files.length; i++) {
+            assertEquals("file " + i + " line 0" + NL + "file " + i + " line 1" + NL + "file " + i + " line 2" + NL,
+                    read("test_pool_" + i + ".txt"));
+        }
+    }
+
+    @Test
+    @DisplayName("writers on their own threads lose nothing while the pool reopens files under them")
+    public void testConcurrentWritersThroughSmallPool() throws Exception {
+        OutputFilePool pool = new OutputFilePool(2);
+        Thread[] writers = new Thread[5];
+        for (int i = 0; i < writers.length; i++) {
+            OutputFile file = pool.openFile("test_pool_" + i + ".txt", false);
+            int number = i;
+            writers[i] = new Thread(() -> {
+                for (int line = 0; line < 200; line++) {
+                    file.println("file " + number + " line " + line);
+                    file.flush();
+                }
+                file.close();
+            });
+        }
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(0, pool.getOpenCount());
+
+        for (int i = 0; i < writers.length; i++) {
+            StringBuilder expected = new StringBuilder();
+            for (int line = 0; line < 200; line++) {
+                expected.append("file ").append(i).append(" line ").append(line).append(NL);
+            }
+            assertEquals(expected.toString(), read("test_pool_" + i + ".txt"));
+        }
+    }
+
+    @Test
+    @DisplayName("first open replaces an old file, append mode keeps it")
+    public void testTruncateAndAppend() throws IOException {
+        Files.write(Paths.get("test_pool_0.txt"), "old contents".getBytes());
+        Files.write(Paths.get("test_pool_1.txt"), ("kept" + NL).getBytes());
+        OutputFilePool pool = new OutputFilePool(4);
+
+        OutputFile fresh = pool.openFile("test_pool_0.txt", false);
+        fresh.println("new");
+        fresh.close();
+        OutputFile appended = pool.openFile("test_pool_1.txt", true);
+        appended.println("more");
+        appended.close();
+
+        assertEquals("new" + NL, read("test_pool_0.txt"));
+        assertEquals("kept" + NL + "more" + NL, read("test_pool_1.txt"));
+    }
+
+    @Test
+    @DisplayName("nothing reaches the file until flush")
+    public void testBufferedUntilFlush() throws IOException {
+        OutputFilePool pool = new OutputFilePool(1);
+        OutputFile file = pool.openFile("test_pool_2.txt", false);
+        file.println("buffered");
+        assertFalse(new File("test_pool_2.txt").exists());
+        file.flush();
+        assertEquals("buffered" + NL, read("test_pool_2.txt"));
+        file.close();
+    }
+
+    @Test
+    @DisplayName("put numbers the way String.valueOf writes them")
+    public void testPutNumbers() throws IOException {
+        OutputFile file = new OutputFilePool(1).openFile("test_pool_3.txt", false);
+        file.put(0).put(new byte[]{' '}).put(7).put(new byte[]{' '}).put(1234567890).endLine();
+        file.put(-42).put(new byte[]{' '}).put(Integer.MAX_VALUE).put(new byte[]{' '}).put(Integer.MIN_VALUE).endLine();
+        file.close();
+        assertEquals("0 7 1234567890" + NL + "-42 2147483647 -2147483648" + NL, read("test_pool_3.txt"));
+    }
+
+    @Test
+    @DisplayName("build and flush lines without allocating once the buffer has grown")
+    public void testNoAllocationPerLine() throws IOException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        OutputFile file = new OutputFilePool(1).openFile("test_pool_4.txt", false);
+        byte[] prefix = "player 7 draws a ".getBytes();
+        // warm up the buffer, the channel and the jit. 1000 lines left the methods half compiled and
+        // a couple of KB turned up while they finished
+        for (int i = 0; i < 20000; i++) {
+            file.put(prefix).put(i).endLine();
+            file.flush();
+        }
+        int lines = 100000;
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < lines; i++) {
+            file.put(prefix).put(i).endLine();
+            file.flush();
+        }
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        file.close();
+        // one object a line is 16 bytes or more. what does turn up (the odd safepoint or deopt, around 1KB
+        // however many lines) is a fixed cost, so a tenth of a byte a line leaves room for it 10 times over
+        double perLine = (double) allocated / lines;
+        assertTrue(perLine < 0.1, allocated + " bytes allocated for " + lines + " lines");
+    }
+
+    @Test
+    @DisplayName("reject a pool with no room")
+    public void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new OutputFilePool(0));
+    }
+}
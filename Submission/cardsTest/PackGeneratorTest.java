@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+@DisplayName("PackGenerator class tests")
+public class PackGeneratorTest {
+
+    private final String packFile = "test_generated_pack.txt";
+
+    @AfterEach
+    public void tearDown() {
+        new File(packFile).delete();
+    }
+
+    @Test
+    @DisplayName("generate exactly 8n non negative cards")
+    public void testPackSize() {
+        for (PackGenerator.Distribution distribution : PackGenerator.Distribution.values()) {
+            int[] pack = new PackGenerator(13, distribution, 5).generate();
+            assertEquals(104, pack.length);
+            for (int card : pack) {
+                assertTrue(card >= 0);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("same seed gives the same pack")
+    public void testSeeded() {
+        int[] first = new PackGenerator(50, PackGenerator.Distribution.SKEWED, 99).generate();
+        int[] second = new PackGenerator(50, PackGenerator.Distribution.SKEWED, 99).generate();
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    @DisplayName("adversarial pack never deals a player their own number")
+    public void testAdversarial() {
+        int players = 20;
+        int[] pack = new PackGenerator(players, PackGenerator.Distribution.ADVERSARIAL, 3).generate();
+        int[] counts = new int[players + 1];
+        for (int i = 0; i < pack.length; i++) {
+            counts[pack[i]]++;
+            int seat = i % players + 1;
+            assertNotEquals(seat, pack[i]);
+        }
+        for (int denomination = 1; denomination <= players; denomination++) {
+            assertEquals(8, counts[denomination]);
+        }
+    }
+
+    @Test
+    @DisplayName("written file matches the generated pack one card per line")
+    public void testWriteToFile() throws IOException {
+        PackGenerator generator = new PackGenerator(10, PackGenerator.Distribution.UNIFORM, 1);
+        generator.writeToFile(packFile);
+
+        List<String> lines = Files.readAllLines(Paths.get(packFile));
+        int[] pack = generator.generate();
+        assertEquals(pack.length, lines.size());
+        for (int i = 0; i < pack.length; i++) {
+            assertEquals(String.valueOf(pack[i]), lines.get(i));
+        }
+    }
+}
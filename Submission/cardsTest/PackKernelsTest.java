@@ -0,0 +1,92 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// build NotNeede/vector and run with --add-modules jdk.incubator.vector to check the vector kernels,
+// without them both sides of testRange are scalar
+@DisplayName("Pack kernel tests")
+public class PackKernelsTest {
+
+    private final PackKernels kernels = PackKernels.get();
+    private final PackKernels scalar = PackKernels.scalar();
+
+    private int[] randomCards(int length, int bound, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] cards = new int[length];
+        for (int i = 0; i < length; i++) {
+            cards[i] = random.nextInt(bound);
+        }
+        return cards;
+    }
+
+    @Test
+    @DisplayName("find the same min and max as the plain loop, tails included")
+    public void testRange() {
+        for (int length : new int[]{0, 1, 7, 16, 17, 1000, 4099}) {
+            int[] cards = randomCards(length, 500, length);
+            assertArrayEquals(scalar.range(cards, length), kernels.range(cards, length), "length " + length);
+        }
+        int[] cards = randomCards(1000, 500, 1);
+        cards[999] = -3; // only in the scalar tail for most lane counts
+        assertEquals(-3, kernels.range(cards, 1000)[0]);
+        cards[999] = Integer.MAX_VALUE;
+        assertEquals(Integer.MAX_VALUE, kernels.range(cards, 1000)[1]);
+        assertTrue(kernels.range(cards, 999)[0] >= 0);
+    }
+
+    @Test
+    @DisplayName("use the vector kernels exactly when they were built and the module is there")
+    public void testKernelChoice() {
+        boolean built;
+        try {
+            Class.forName("VectorPackKernels", false, getClass().getClassLoader());
+            built = true;
+        } catch (ClassNotFoundException e) {
+            built = false;
+        }
+        boolean module = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assertEquals(built && module, kernels.name().startsWith("vector"), kernels.name());
+        assertEquals("scalar", scalar.name());
+    }
+
+    @Test
+    @DisplayName("count denominations the same with the histogram and with the sort for huge values")
+    public void testCount() {
+        for (int bound : new int[]{1, 13, 1000, 70000}) {
+            int[] cards = randomCards(100003, bound, bound * 31L);
+            // past PackAnalysis's dense limit the same cards are counted by sorting instead
+            int[] huge = new int[cards.length];
+            for (int i = 0; i < cards.length; i++) {
+                huge[i] = cards[i] + (1 << 24);
+            }
+            Map<Integer, Integer> expected = new HashMap<>();
+            for (int card : cards) {
+                expected.merge(card, 1, Integer::sum);
+            }
+            PackAnalysis dense = new PackAnalysis(cards);
+            PackAnalysis sorted = new PackAnalysis(huge);
+            assertEquals(expected.size(), dense.getDistinctDenominations(), "bound " + bound);
+            assertEquals(expected.size(), sorted.getDistinctDenominations(), "bound " + bound);
+            for (int value = 0; value < bound; value++) {
+                int count = expected.getOrDefault(value, 0);
+                assertEquals(count, dense.getCount(value), "bound " + bound + " value " + value);
+                assertEquals(count, sorted.getCount(value + (1 << 24)), "bound " + bound + " value " + value);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("reject negative cards in pack analysis")
+    public void testPackAnalysis() {
+        int[] cards = randomCards(10000, 50, 7);
+        PackAnalysis analysis = new PackAnalysis(cards);
+        assertEquals(10000, analysis.getCardCount());
+        assertTrue(analysis.isWinnable());
+        cards[5000] = -1;
+        assertThrows(IllegalArgumentException.class, () -> new PackAnalysis(cards));
+    }
+}
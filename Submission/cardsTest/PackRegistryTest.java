@@ -0,0 +1,199 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("Pack registry tests")
+public class PackRegistryTest {
+
+    private final String testPackFile = "test_pack_registry.txt";
+
+    @AfterEach
+    public void tearDown() {
+        new File(testPackFile).delete();
+        for (int i = 1; i <= 4; i++) {
+            new File("player" + i + "_output.txt").delete();
+            new File("deck" + i + "_output.txt").delete();
+        }
+    }
+
+    private void writePack(int... cards) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(testPackFile))) {
+            for (int card : cards) {
+                writer.println(card);
+            }
+        }
+    }
+
+    // 4 players, denominations 1 to 5 in turn so nobody is dealt four of a kind
+    private void writeGamePack() throws IOException {
+        int[] cards = new int[32];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = i % 5 + 1;
+        }
+        writePack(cards);
+    }
+
+    @Test
+    @DisplayName("parse a pack once while anyone holds it and drop it after the last release")
+    public void testSharedUntilLastRelease() throws IOException {
+        writePack(1, 1, 1, 1, 2, 3, 4, 5);
+        PackRegistry registry = new PackRegistry(false);
+        SharedPack first = registry.acquire(testPackFile);
+        SharedPack second = registry.acquire("./" + testPackFile);
+        assertSame(first, second);
+        assertEquals(1, registry.getParses());
+        assertEquals(8, first.size());
+        assertTrue(first.isWinnable());
+
+        first.release();
+        assertEquals(1, registry.size());
+        second.release();
+        assertEquals(0, registry.size());
+        assertThrows(IllegalStateException.class, second::release);
+
+        SharedPack third = registry.acquire(testPackFile);
+        assertNotSame(first, third);
+        assertEquals(2, registry.getParses());
+        third.release();
+    }
+
+    @Test
+    @DisplayName("store cards in as few bytes as the biggest denomination allows")
+    public void testCompactWidths() throws IOException {
+        PackRegistry registry = new PackRegistry(false);
+        int[][] packs = {{0, 7, 255, 3}, {0, 256, 65535, 9}, {0, 65536, Integer.MAX_VALUE, 1}};
+        long[] bytes = {4, 8, 16};
+        for (int p = 0; p < packs.length; p++) {
+            writePack(packs[p]);
+            SharedPack pack = registry.acquire(testPackFile);
+            assertEquals(bytes[p], pack.getBytes());
+            assertFalse(pack.isWinnable());
+            for (int i = 0; i < packs[p].length; i++) {
+                assertEquals(packs[p][i], pack.get(i));
+            }
+            pack.release();
+        }
+    }
+
+    @Test
+    @DisplayName("reparse a pack file that was rewritten while the old one is still held")
+    public void testRewrittenFile() throws IOException {
+        PackRegistry registry = new PackRegistry(false);
+        writePack(1, 2, 3, 4);
+        SharedPack before = registry.acquire(testPackFile);
+        writePack(5, 6, 7, 8, 9);
+        SharedPack after = registry.acquire(testPackFile);
+        assertNotSame(before, after);
+        assertEquals(1, before.get(0));
+        assertEquals(5, after.get(0));
+        before.release();
+        after.release();
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    @DisplayName("keep nothing for packs that dont read")
+    public void testBadPacks() throws IOException {
+        PackRegistry registry = new PackRegistry(false);
+        assertNull(registry.acquire("no_such_pack.txt"));
+        writePack(1, 2, -3, 4);
+        assertNull(registry.acquire(testPackFile));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    @DisplayName("deal the same cards from a mapped pack")
+    public void testMappedPack() throws IOException {
+        writePack(3, 300, 3, 3, 3);
+        SharedPack pack = new PackRegistry(true).acquire(testPackFile);
+        assertTrue(pack.isMapped());
+        assertEquals(300, pack.get(1));
+        assertTrue(pack.isWinnable());
+        pack.release();
+    }
+
+    @Test
+    @DisplayName("unmap a mapped pack when the last game lets go of it")
+    public void testMappedPackUnmappedOnRelease() throws IOException {
+        writePack(3, 300, 3, 3, 3);
+        PackRegistry registry = new PackRegistry(true);
+        BufferPoolMXBean mappedPool = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("mapped")).findFirst().get();
+        long mappedBefore = mappedPool.getCount();
+        for (int i = 0; i < 200; i++) {
+            SharedPack first = registry.acquire(testPackFile);
+            SharedPack second = registry.acquire(testPackFile);
+            assertSame(first, second);
+            first.release();
+            assertEquals(300, second.get(1)); // still held by the second game
+            second.release();
+            assertThrows(IllegalStateException.class, () -> second.get(1));
+        }
+        assertEquals(0, registry.size());
+        assertEquals(200, registry.getParses());
+        // without unmapping, 200 mappings would still be waiting on the GC
+        assertTrue(mappedPool.getCount() <= mappedBefore, mappedPool.getCount() + " mapped buffers");
+    }
+
+    @Test
+    @DisplayName("games loading one pack at the same time parse it once between them")
+    public void testConcurrentGamesShareOnePack() throws Exception {
+        writeGamePack();
+        PackRegistry registry = PackRegistry.getDefault();
+        int parsesBefore = registry.getParses();
+        int heldBefore = registry.size(); // other tests may leave games unfinished
+        int games = 8;
+        List<CardGame> loaded = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        for (int g = 0; g < games; g++) {
+            CardGame game = new CardGame();
+            loaded.add(game);
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (game.loadPack(4, testPackFile)) {
+                    loads.incrementAndGet();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(games, loads.get());
+        assertEquals(parsesBefore + 1, registry.getParses());
+        assertEquals(heldBefore + 1, registry.size());
+
+        // a pack of the wrong size for the game is turned away without being parsed again
+        assertFalse(new CardGame().loadPack(3, testPackFile));
+        assertEquals(parsesBefore + 1, registry.getParses());
+
+        // all dealt from the same cards, the last one to finish lets the pack go
+        for (CardGame game : loaded) {
+            game.deal();
+            assertArrayEquals(new int[]{1, 5, 4, 3}, game.getPlayers().get(0).getHandDenominations());
+        }
+        loaded.get(0).play();
+        for (int g = 1; g < games; g++) {
+            assertEquals(heldBefore + 1, registry.size());
+            loaded.get(g).close();
+        }
+        assertEquals(heldBefore, registry.size());
+    }
+}
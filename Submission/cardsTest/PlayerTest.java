@@ -1,120 +1,184 @@
-import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.DisplayName;
-import static org.junit.jupiter.api.Assertions.*;
-
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.concurrent.atomic.AtomicInteger;
-
-@DisplayName("Player Class Tests")
-public class PlayerTest {
-    
-    private Player player;
-    private CardDeck drawDeck;
-    private CardDeck discardDeck;
-    private AtomicInteger winningPlayer;
-    @BeforeEach
-    public void setUp() {
-        drawDeck = new CardDeck(1);
-        discardDeck = new CardDeck(2);
-        winningPlayer = new AtomicInteger(0);
-        player = new Player(1, drawDeck, discardDeck, winningPlayer);
-    }
-    
-    @AfterEach
-    public void tearDown() {
-        File playerFile = new File("player1_output.txt");
-        if (playerFile.exists()) {
-            playerFile.delete();
-        }
-    }
-    @Test
-    @DisplayName("create player with right number and state")
-    public void testPlayerCreation() {
-        assertEquals(1, player.getPlayerNumber());
-    }
-    
-    @Test
-    @DisplayName("add cards to hand")
-    public void testAddingCardsToHand() {
-        player.addCardToHand(new Card(1));
-        player.addCardToHand(new Card(2));
-        player.addCardToHand(new Card(3));
-        player.addCardToHand(new Card(4));
-        
-        String hand = player.getHandAsString();
-        assertEquals("1 2 3 4", hand);
-    }
-    
-    @Test
-    @DisplayName("detect winning hand with all of same value")
-    public void testWinningHandDetection() {
-        player.addCardToHand(new Card(5));
-        player.addCardToHand(new Card(5));
-        player.addCardToHand(new Card(5));
-        player.addCardToHand(new Card(5));
-        
-        assertTrue(player.hasWinningHand());
-    }
-    
-    @Test
-    @DisplayName("dont detect winning hand with dif values")
-    public void testNonWinningHandDetection() {
-        player.addCardToHand(new Card(1));
-        player.addCardToHand(new Card(2));
-        player.addCardToHand(new Card(3));
-        player.addCardToHand(new Card(4));
-        
-        assertFalse(player.hasWinningHand());
-    }
-    
-    @Test
-    @DisplayName("don't detect winning hand with incomplete hand")
-    public void testIncompleteHandDetection() {
-        player.addCardToHand(new Card(1));
-        player.addCardToHand(new Card(1));
-        player.addCardToHand(new Card(1));
-        
-        //only 3/4 cards
-        
-        assertFalse(player.hasWinningHand());
-    }
-    
-    @Test
-    @DisplayName("ensure hand size limited to 4 cards")
-    public void testHandSizeLimit() {
-        // attempt to add more than 4
-        for (int i = 1; i <= 6; i++) {
-            player.addCardToHand(new Card(i));
-        }
-        
-        String hand = player.getHandAsString();
-        String[] cards = hand.split(" ");
-        assertEquals(4, cards.length);
-    }
-    
-    @Test
-    @DisplayName("create output file with initial hand")
-    public void testFileOutputCreation() throws IOException, InterruptedException {
-        player.addCardToHand(new Card(1));
-        player.addCardToHand(new Card(2));
-        player.addCardToHand(new Card(3));
-        player.addCardToHand(new Card(4));
-        
-        player.writeInitialHand();
-    
-        Thread.sleep(50);
-        
-        // check output
-        File outputFile = new File("player1_output.txt");
-        assertTrue(outputFile.exists());
-        
-        String content = new String(Files.readAllBytes(Paths.get("player1_output.txt")));
-        assertTrue(content.contains("player 1 initial hand"));
-        assertTrue(content.contains("1 2 3 4"));
-    }
-}
\ No newline at end of file
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("Player Class Tests")
+public class PlayerTest {
+    
+    private Player player;
+    private CardDeck drawDeck;
+    private CardDeck discardDeck;
+    private AtomicInteger winningPlayer;
+    @BeforeEach
+    public void setUp() {
+        drawDeck = new CardDeck(1);
+        discardDeck = new CardDeck(2);
+        winningPlayer = new AtomicInteger(0);
+        player = new Player(1, drawDeck, discardDeck, winningPlayer);
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        File playerFile = new File("player1_output.txt");
+        if (playerFile.exists()) {
+            playerFile.delete();
+        }
+    }
+    @Test
+    @DisplayName("create player with right number and state")
+    public void testPlayerCreation() {
+        assertEquals(1, player.getPlayerNumber());
+    }
+    
+    @Test
+    @DisplayName("add cards to hand")
+    public void testAddingCardsToHand() {
+        player.addCardToHand(new Card(1));
+        player.addCardToHand(new Card(2));
+        player.addCardToHand(new Card(3));
+        player.addCardToHand(new Card(4));
+        
+        String hand = player.getHandAsString();
+        assertEquals("1 2 3 4", hand);
+    }
+    
+    @Test
+    @DisplayName("detect winning hand with all of same value")
+    public void testWinningHandDetection() {
+        player.addCardToHand(new Card(5));
+        player.addCardToHand(new Card(5));
+        player.addCardToHand(new Card(5));
+        player.addCardToHand(new Card(5));
+        
+        assertTrue(player.hasWinningHand());
+    }
+    
+    @Test
+    @DisplayName("dont detect winning hand with dif values")
+    public void testNonWinningHandDetection() {
+        player.addCardToHand(new Card(1));
+        player.addCardToHand(new Card(2));
+        player.addCardToHand(new Card(3));
+        player.addCardToHand(new Card(4));
+        
+        assertFalse(player.hasWinningHand());
+    }
+    
+    @Test
+    @DisplayName("don't detect winning hand with incomplete hand")
+    public void testIncompleteHandDetection() {
+        player.addCardToHand(new Card(1));
+        player.addCardToHand(new Card(1));
+        player.addCardToHand(new Card(1));
+        
+        //only 3/4 cards
+        
+        assertFalse(player.hasWinningHand());
+    }
+    
+    @Test
+    @DisplayName("ensure hand size limited to 4 cards")
+    public void testHandSizeLimit() {
+        // attempt to add more than 4
+        for (int i = 1; i <= 6; i++) {
+            player.addCardToHand(new Card(i));
+        }
+        
+        String hand = player.getHandAsString();
+        String[] cards = hand.split(" ");
+        assertEquals(4, cards.length);
+    }
+    
+    @Test
+    @DisplayName("create output file with initial hand")
+    public void testFileOutputCreation() throws IOException, InterruptedException {
+        player.addCardToHand(new Card(1));
+        player.addCardToHand(new Card(2));
+        player.addCardToHand(new Card(3));
+        player.addCardToHand(new Card(4));
+        
+        player.writeInitialHand();
+    
+        Thread.sleep(50);
+        
+        // check output
+        File outputFile = new File("player1_output.txt");
+        assertTrue(outputFile.exists());
+        
+        String content = new String(Files.readAllBytes(Paths.get("player1_output.txt")));
+        assertTrue(content.contains("player 1 initial hand"));
+        assertTrue(content.contains("1 2 3 4"));
+    }
+
+    @Test
+    @DisplayName("write the same log bytes as the old string built lines")
+    public void testExactLogLines() throws IOException {
+        String nl = System.lineSeparator();
+        for (int denomination : new int[]{1, 1, 1, 2}) {
+            player.addCardToHand(new Card(denomination));
+        }
+        drawDeck.addCard(new Card(1));
+        player.run(); // on this thread, one turn then a win
+
+        assertEquals("player 1 initial hand 1 1 1 2" + nl
+                   + "player 1 draws a 1 from deck 1" + nl
+                   + "player 1 discards a 2 to deck 2" + nl
+                   + "player 1 current hand is 1 1 1 1" + nl
+                   + "player 1 wins" + nl
+                   + "player 1 exits" + nl
+                   + "player 1 final hand: 1 1 1 1" + nl,
+                   new String(Files.readAllBytes(Paths.get("player1_output.txt"))));
+
+        Player loser = new Player(1, drawDeck, discardDeck, new AtomicInteger(12));
+        for (int denomination : new int[]{100, 2000, 30000, 0}) {
+            loser.addCardToHand(new Card(denomination));
+        }
+        loser.run();
+        assertEquals("player 1 initial hand 100 2000 30000 0" + nl
+                   + "player 12 has informed player 1 that player 12 has won" + nl
+                   + "player 1 exits" + nl
+                   + "player 1 final hand: 100 2000 30000 0" + nl,
+                   new String(Files.readAllBytes(Paths.get("player1_output.txt"))));
+    }
+
+    @Test
+    @DisplayName("readers always see a whole 4 card hand while the player is mid game")
+    public void testConsistentHandSnapshots() throws InterruptedException {
+        // drawing from and discarding to the same deck keeps the player going round forever
+        CardDeck loopDeck = new CardDeck(1);
+        Player looping = new Player(1, loopDeck, loopDeck, winningPlayer);
+        looping.setBackoff(new BackoffPolicy(0, 0, 0, 1_000L, 1_000L));
+        for (int i = 2; i <= 5; i++) {
+            looping.addCardToHand(new Card(i));
+            loopDeck.addCard(new Card(i + 4));
+        }
+
+        looping.start();
+        try {
+            int[] hand = new int[5];
+            long deadline = System.currentTimeMillis() + 300;
+            while (System.currentTimeMillis() < deadline) {
+                assertEquals(4, looping.copyHand(hand));
+                // each of the 8 cards is different so a torn read would show a repeat
+                for (int i = 0; i < 4; i++) {
+                    for (int j = i + 1; j < 4; j++) {
+                        assertNotEquals(hand[i], hand[j]);
+                    }
+                }
+                assertEquals(4, looping.getHandDenominations().length);
+            }
+            assertTrue(looping.getTurnCount() > 0);
+        } finally {
+            looping.interrupt();
+            looping.join();
+        }
+    }
+}
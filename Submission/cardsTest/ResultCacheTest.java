@@ -0,0 +1,137 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+@DisplayName("Result cache tests")
+public class ResultCacheTest {
+
+    private final String testPackFile = "test_pack_cache.txt";
+    private final Path cacheDir = Paths.get("test_result_cache");
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        String[] filesToDelete = {
+            testPackFile, "test_pack_cache_copy.txt",
+            "player1_output.txt", "player2_output.txt",
+            "deck1_output.txt", "deck2_output.txt"
+        };
+        for (String filename : filesToDelete) {
+            new File(filename).delete();
+        }
+        if (Files.exists(cacheDir)) {
+            try (Stream<Path> files = Files.walk(cacheDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    private void writePack(String filename) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            for (int card : new int[]{1, 2, 1, 3, 1, 4, 2, 5, 1, 6, 7, 8, 9, 10, 11, 12}) {
+                writer.println(card);
+            }
+        }
+    }
+
+    private String runGame(String... args) {
+        PrintStream originalOut = System.out;
+        InputStream originalIn = System.in;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output));
+        System.setIn(new ByteArrayInputStream(("2\n" + testPackFile + "\n").getBytes()));
+        try {
+            CardGame.main(args);
+        } finally {
+            System.setOut(originalOut);
+            System.setIn(originalIn);
+        }
+        return output.toString();
+    }
+
+    @Test
+    @DisplayName("second run of the same pack comes from the cache")
+    public void testCacheHit() throws IOException {
+        writePack(testPackFile);
+        String first = runGame("--cache", cacheDir.toString());
+        assertTrue(first.contains("player 1 wins"));
+        assertFalse(first.contains("cached result"));
+
+        String second = runGame("--cache", cacheDir.toString());
+        assertTrue(second.contains("player 1 wins"));
+        assertTrue(second.contains("cached result"));
+        assertFalse(second.contains("Game starting"));
+    }
+
+    @Test
+    @DisplayName("cache a game played on off heap decks")
+    public void testOffHeapDecks() throws IOException {
+        writePack(testPackFile);
+        String first = runGame("--cache", cacheDir.toString(), "--off-heap-decks");
+        assertTrue(first.contains("Game completed successfully!"), first);
+        String second = runGame("--cache", cacheDir.toString(), "--off-heap-decks");
+        assertTrue(second.contains("cached result"));
+    }
+
+    @Test
+    @DisplayName("different settings miss the cache")
+    public void testConfigMiss() throws IOException {
+        writePack(testPackFile);
+        runGame("--cache", cacheDir.toString());
+        String other = runGame("--cache", cacheDir.toString(), "--strategy", "frequency");
+        assertFalse(other.contains("cached result"));
+    }
+
+    @Test
+    @DisplayName("restore output files from the cache")
+    public void testCachedFiles() throws IOException {
+        writePack(testPackFile);
+        runGame("--cache", cacheDir.toString(), "--cache-files");
+        String player1 = new String(Files.readAllBytes(Paths.get("player1_output.txt")));
+        new File("player1_output.txt").delete();
+
+        String second = runGame("--cache", cacheDir.toString(), "--cache-files");
+        assertTrue(second.contains("cached result"));
+        assertEquals(player1, new String(Files.readAllBytes(Paths.get("player1_output.txt"))));
+    }
+
+    @Test
+    @DisplayName("key depends on pack contents, players and config but not the file name")
+    public void testKey() throws IOException {
+        writePack(testPackFile);
+        writePack("test_pack_cache_copy.txt");
+        String key = ResultCache.key(testPackFile, 2, "a");
+        assertEquals(64, key.length());
+        assertEquals(key, ResultCache.key("test_pack_cache_copy.txt", 2, "a"));
+        assertNotEquals(key, ResultCache.key(testPackFile, 3, "a"));
+        assertNotEquals(key, ResultCache.key(testPackFile, 2, "b"));
+    }
+
+    @Test
+    @DisplayName("evict the least recently used entries over the size limit")
+    public void testEviction() throws IOException {
+        GameSnapshot result = new GameSnapshot(1, 1, new int[]{3}, new int[][]{{1, 1, 1, 1}}, new int[][]{{2, 3}});
+        ResultCache cache = new ResultCache(cacheDir, 1);
+        cache.store("old", result, Collections.emptyList());
+        Files.setLastModifiedTime(cacheDir.resolve("old"), FileTime.fromMillis(1000));
+        cache.store("new", result, Collections.emptyList());
+
+        assertNull(cache.lookup("old", null));
+        assertNotNull(cache.lookup("new", null));
+        assertEquals(1, cache.lookup("new", null).getWinningPlayer());
+
+        ResultCache roomy = new ResultCache(cacheDir, 1 << 20);
+        roomy.store("another", result, Collections.emptyList());
+        assertNotNull(roomy.lookup("new", null));
+        assertNotNull(roomy.lookup("another", null));
+    }
+}
@@ -0,0 +1,139 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+@DisplayName("Reusable game tests")
+public class ReusableGameTest {
+
+    private final String testPackFile = "test_pack_reuse.txt";
+
+    @AfterEach
+    public void tearDown() {
+        new File(testPackFile).delete();
+        for (int i = 1; i <= 4; i++) {
+            new File("player" + i + "_output.txt").delete();
+            new File("deck" + i + "_output.txt").delete();
+        }
+    }
+
+    private void write(String filename, String content) throws IOException {
+        try (FileWriter writer = new FileWriter(filename)) {
+            writer.write(content);
+        }
+    }
+
+    // denominations 1 to players + 1 in turn, so nobody is dealt four of a kind
+    private void writePack(int players) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 8 * players; i++) {
+            sb.append(i % (players + 1) + 1).append("\n");
+        }
+        write(testPackFile, sb.toString());
+    }
+
+    private int playGame(CardGame game, int players) throws IOException {
+        writePack(players);
+        assertTrue(game.loadPack(players, testPackFile));
+        game.deal();
+        int winner = game.play();
+        LogAnalyzer analyzer = new LogAnalyzer(players, Paths.get("."));
+        assertTrue(analyzer.loadPack(testPackFile));
+        LogAnalyzer.Report report = analyzer.analyze();
+        assertTrue(report.isValid(), report.toString());
+        return winner;
+    }
+
+    @Test
+    @DisplayName("play back to back games on the same players and decks")
+    public void testBackToBackGames() throws IOException {
+        CardGame game = new CardGame(GameOptions.parse(new String[]{"--no-watchdog"}));
+        game.setReusable(true);
+        try {
+            assertTrue(playGame(game, 4) > 0);
+            List<Player> players = new ArrayList<>(game.getPlayers());
+            List<CardDeck> decks = new ArrayList<>(game.getDecks());
+
+            // smaller game takes the first seats, then the full table comes back
+            assertTrue(playGame(game, 3) > 0);
+            assertEquals(3, game.getPlayers().size());
+            for (int i = 0; i < 3; i++) {
+                assertSame(players.get(i), game.getPlayers().get(i));
+                assertSame(decks.get(i), game.getDecks().get(i));
+            }
+
+            assertTrue(playGame(game, 4) > 0);
+            assertEquals(players, game.getPlayers());
+            assertEquals(decks, game.getDecks());
+        } finally {
+            game.close();
+        }
+    }
+
+    @Test
+    @DisplayName("only choose reuse before the first deal")
+    public void testReuseAfterDeal() throws IOException {
+        CardGame game = new CardGame(GameOptions.parse(new String[]{"--no-watchdog"}));
+        writePack(2);
+        assertTrue(game.loadPack(2, testPackFile));
+        game.deal();
+        assertThrows(IllegalStateException.class, () -> game.setReusable(true));
+        game.play();
+    }
+
+    @Test
+    @DisplayName("read packs the same way CardGame does")
+    public void testPackReader() throws IOException {
+        PackReader reader = new PackReader();
+        write(testPackFile, "1\r\n  2 \n\n3\n4\n+5\n6\n7\n8\n1\n1\n1\n2\n3\n4\n5\n6");
+        assertTrue(reader.read(testPackFile, 2));
+        assertEquals(16, reader.size());
+        assertEquals(2, reader.get(1));
+        assertEquals(5, reader.get(4));
+        assertTrue(reader.isWinnable());
+        assertTrue(reader.isWinnable()); // counts are cleared between calls
+
+        write(testPackFile, "1\n2\n3\n4\n5\n6\n7\n8");
+        assertTrue(reader.read(testPackFile, 1));
+        assertFalse(reader.isWinnable());
+
+        write(testPackFile, "1\n2\nabc\n4\n5\n6\n7\n8");
+        assertFalse(reader.read(testPackFile, 1));
+        write(testPackFile, "1\n-2\n3\n4\n5\n6\n7\n8");
+        assertFalse(reader.read(testPackFile, 1));
+        write(testPackFile, "1\n2147483648\n3\n4\n5\n6\n7\n8");
+        assertFalse(reader.read(testPackFile, 1));
+        write(testPackFile, "1\n2\n3");
+        assertFalse(reader.read(testPackFile, 1));
+        assertFalse(reader.read("no_such_pack.txt", 1));
+    }
+
+    @Test
+    @DisplayName("ring deck stays first in first out as it grows and after a clear")
+    public void testRingDeck() {
+        RingCardDeck deck = new RingCardDeck(1);
+        for (int i = 0; i < 10; i++) {
+            deck.addCard(Card.of(i));
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, deck.drawCard().getDenomination());
+        }
+        for (int i = 10; i < 40; i++) {
+            deck.discardCard(Card.of(i)); // wraps then grows
+        }
+        assertEquals(35, deck.size());
+        assertEquals(5, deck.getDenominations()[0]);
+        assertEquals(39, deck.getDenominations()[34]);
+
+        deck.clear();
+        assertTrue(deck.isEmpty());
+        assertNull(deck.drawCard());
+        deck.discardCard(Card.of(7));
+        assertEquals("deck1 contents: 7", deck.toString());
+    }
+}
@@ -0,0 +1,112 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@DisplayName("Scaling harness tests")
+public class ScalingHarnessTest {
+
+    private final Path outDir = Paths.get("test_scaling_report");
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (Files.exists(outDir)) {
+            try (Stream<Path> files = Files.walk(outDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("turn latency percentiles land within a bucket of the real value")
+    public void testTurnLatencyPercentiles() {
+        TurnLatency latency = new TurnLatency(4);
+        assertEquals(0, latency.percentile(0.5));
+        for (int i = 1; i <= 1000; i++) {
+            latency.record(i, i * 1000L); // 1us to 1ms
+        }
+        assertEquals(1000, latency.count());
+        assertEquals(500_000, latency.percentile(0.5), 500_000 * 0.07);
+        assertEquals(990_000, latency.percentile(0.99), 990_000 * 0.07);
+        assertEquals(1_000_000, latency.percentile(1.0), 1_000_000 * 0.07);
+
+        // buckets are in order and every value lands in the bucket it belongs to
+        for (long nanos : new long[]{0, 15, 16, 17, 1023, 1024, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = TurnLatency.bucket(nanos);
+            assertTrue(TurnLatency.lowest(bucket) <= nanos, "bucket of " + nanos);
+            assertTrue(bucket == TurnLatency.BUCKETS - 1 || TurnLatency.lowest(bucket + 1) > nanos, "bucket of " + nanos);
+        }
+    }
+
+    @Test
+    @DisplayName("read the summary line and work out how a run ended")
+    public void testSummaryAndStatus() {
+        Map<String, String> fields = ScalingHarness.parseSummary("summary players=10 winner=3 turns=120 p99_us=41.5");
+        assertEquals("10", fields.get("players"));
+        assertEquals("41.5", fields.get("p99_us"));
+
+        String summary = "summary players=10 winner=-1";
+        assertEquals("won", ScalingHarness.status(Arrays.asList("player 3 wins", "Game completed successfully!", summary)));
+        assertEquals("budget", ScalingHarness.status(Arrays.asList(
+                "Game stopped with no winner: turn budget of 500 turns used up with no winner", summary)));
+        assertEquals("aborted", ScalingHarness.status(Arrays.asList(
+                "Game stopped with no winner: no player has taken a turn in 6000 ms", summary)));
+        assertEquals("failed", ScalingHarness.status(Arrays.asList("Error: Invalid pack")));
+    }
+
+    @Test
+    @DisplayName("reject unknown modes and bad game flags before running anything")
+    public void testBadOptions() {
+        assertThrows(IllegalArgumentException.class, () -> ScalingHarness.parse(new String[]{"--mode", "star"}));
+        assertThrows(IllegalArgumentException.class, () -> ScalingHarness.parse(new String[]{"--mode", "x=--topology star"}));
+        assertThrows(IllegalArgumentException.class, () -> ScalingHarness.parse(new String[]{"--players", "10,0"}));
+        assertArrayEquals(new int[]{1, 2, 4, 6}, ScalingHarness.defaultCpuLimits(6));
+        // only counts that finish on a small machine unless asked for
+        assertArrayEquals(new int[]{2, 10, 100, 1000}, ScalingHarness.parse(new String[0]).playerCounts);
+
+        ScalingHarness harness = ScalingHarness.parse(new String[]{"--mode", "mine=--topology neighbours:2"});
+        assertEquals("--topology neighbours:2", harness.modes.get("mine"));
+        GameOptions options = GameOptions.parse(new String[]{"--players", "4", "--pack", "p.txt", "--run-summary"});
+        assertEquals(4, options.players);
+        assertEquals("p.txt", options.packFile);
+        assertTrue(options.runSummary);
+    }
+
+    @Test
+    @DisplayName("run small games in child JVMs and write the csv and report")
+    public void testSweep() throws Exception {
+        ScalingHarness harness = ScalingHarness.parse(new String[]{
+            "--players", "2,4", "--cpus", "1", "--mode", "ring", "--mode", "central",
+            "--repeats", "1", "--turns-per-player", "20", "--timeout", "60", "--out", outDir.toString()});
+        List<Map<String, String>> results = harness.runAll();
+
+        assertEquals(4, results.size());
+        for (Map<String, String> result : results) {
+            assertTrue(result.get("status").equals("won") || result.get("status").equals("budget"), result.toString());
+            assertTrue(Long.parseLong(result.get("turns")) >= 0);
+            assertTrue(Integer.parseInt(result.get("peak_threads")) > Integer.parseInt(result.get("players")));
+        }
+        // player logs are cleared up, the child's output stays
+        assertTrue(Files.exists(outDir.resolve("runs/ring-p2-c1-r1/stdout.txt")));
+        assertFalse(Files.exists(outDir.resolve("runs/ring-p2-c1-r1/player1_output.txt")));
+
+        List<String> csv = Files.readAllLines(outDir.resolve("results.csv"), StandardCharsets.UTF_8);
+        assertEquals(5, csv.size());
+        assertEquals(String.join(",", ScalingHarness.COLUMNS), csv.get(0));
+        String html = new String(Files.readAllBytes(outDir.resolve("report.html")), StandardCharsets.UTF_8);
+        assertEquals(6, html.split("<svg ", -1).length - 1);
+        assertTrue(html.contains("ring, 1 cpu"));
+        assertFalse(html.contains("<script"));
+    }
+}
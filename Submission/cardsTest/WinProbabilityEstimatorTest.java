@@ -0,0 +1,122 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Win probability estimator tests")
+public class WinProbabilityEstimatorTest {
+
+    // dealt round robin: player 1 gets 1 1 1 2, player 2 gets 2 3 4 5, deck 1 starts with a 1
+    private final int[] quickWin = {1, 2, 1, 3, 1, 4, 2, 5, 1, 6, 7, 8, 9, 10, 11, 12};
+
+    @Test
+    @DisplayName("seat dealt four of a kind always wins")
+    public void testDealtWinner() {
+        int[] pack = {7, 1, 7, 2, 7, 3, 7, 4, 5, 6, 8, 9, 10, 11, 12, 13};
+        WinProbabilityEstimator estimator = new WinProbabilityEstimator(2, pack);
+        WinProbabilityEstimator.Estimate estimate = estimator.run();
+        assertEquals(1.0, estimate.getWinProbability(1));
+        assertEquals(0.0, estimate.getWinProbability(2));
+        assertEquals(0.0, estimate.getMeanTurns());
+    }
+
+    @Test
+    @DisplayName("player 1 wins on its first draw")
+    public void testQuickWin() {
+        WinProbabilityEstimator.Estimate estimate = new WinProbabilityEstimator(2, quickWin).run();
+        assertEquals(1.0, estimate.getWinProbability(1));
+        assertEquals(0, estimate.getUnfinishedGames());
+        // player 2 may get some turns in before player 1 draws
+        assertTrue(estimate.getMeanTurns() >= 1 && estimate.getMeanTurns() < 10);
+    }
+
+    @Test
+    @DisplayName("stop once the interval is narrow enough")
+    public void testConvergence() {
+        int[] pack = new int[32];
+        for (int i = 0; i < pack.length; i++) {
+            pack[i] = i % 4 + 1;
+        }
+        WinProbabilityEstimator estimator = new WinProbabilityEstimator(4, pack);
+        estimator.setStrategies(new String[]{"random"});
+        estimator.setTargetHalfWidth(0.02);
+        WinProbabilityEstimator.Estimate estimate = estimator.run();
+
+        double total = 0;
+        for (int seat = 1; seat <= 4; seat++) {
+            total += estimate.getWinProbability(seat);
+            assertTrue(estimate.getHalfWidth(seat) <= 0.02);
+        }
+        assertEquals(1.0, total + (double) estimate.getUnfinishedGames() / estimate.getGames(), 1e-9);
+        assertTrue(estimate.getGames() < 100_000);
+    }
+
+    @Test
+    @DisplayName("same seed gives the same estimate")
+    public void testRepeatable() {
+        int[] pack = {1, 2, 3, 1, 2, 3, 1, 2, 3, 4, 4, 4, 1, 2, 3, 4, 5, 6, 7, 8, 1, 2, 3, 4};
+        WinProbabilityEstimator first = new WinProbabilityEstimator(3, pack);
+        WinProbabilityEstimator second = new WinProbabilityEstimator(3, pack);
+        first.setStrategies(new String[]{"random", "frequency"});
+        second.setStrategies(new String[]{"random", "frequency"});
+        first.setSeed(42);
+        second.setSeed(42);
+        first.setMaxGames(500);
+        second.setMaxGames(500);
+
+        WinProbabilityEstimator.Estimate a = first.run();
+        WinProbabilityEstimator.Estimate b = second.run();
+        assertEquals(a.getGames(), b.getGames());
+        for (int seat = 1; seat <= 3; seat++) {
+            assertEquals(a.getWinProbability(seat), b.getWinProbability(seat));
+        }
+        assertEquals(a.getMeanTurns(), b.getMeanTurns());
+    }
+
+    @Test
+    @DisplayName("give up on games that hit the turn cap")
+    public void testTurnCap() {
+        int[] pack = new int[16];
+        for (int i = 0; i < pack.length; i++) {
+            pack[i] = i + 1; // nobody can ever hold four of a kind
+        }
+        WinProbabilityEstimator estimator = new WinProbabilityEstimator(2, pack);
+        estimator.setMaxTurnsPerGame(50);
+        estimator.setMaxGames(300);
+        WinProbabilityEstimator.Estimate estimate = estimator.run();
+        assertEquals(estimate.getGames(), estimate.getUnfinishedGames());
+        assertEquals(0.0, estimate.getWinProbability(1));
+    }
+
+    @Test
+    @DisplayName("interval bounds hold the estimate when a seat wins every game or none")
+    public void testIntervalAtEdges() {
+        int[] pack = {7, 1, 7, 2, 7, 3, 7, 4, 5, 6, 8, 9, 10, 11, 12, 13};
+        WinProbabilityEstimator estimator = new WinProbabilityEstimator(2, pack);
+        estimator.setMaxGames(50);
+        WinProbabilityEstimator.Estimate estimate = estimator.run();
+        long n = estimate.getGames();
+        double z2 = 1.96 * 1.96;
+
+        // p = 1, the interval runs from n / (n + z^2) up to 1
+        assertEquals(1.0, estimate.getWinProbability(1));
+        assertEquals(1.0, estimate.getUpperBound(1), 1e-9);
+        assertEquals(n / (n + z2), estimate.getLowerBound(1), 1e-9);
+        assertTrue(estimate.getIntervalCentre(1) < 1.0);
+
+        // p = 0, the mirror image
+        assertEquals(0.0, estimate.getWinProbability(2));
+        assertEquals(0.0, estimate.getLowerBound(2), 1e-9);
+        assertEquals(z2 / (n + z2), estimate.getUpperBound(2), 1e-9);
+        assertTrue(estimate.getIntervalCentre(2) > 0.0);
+
+        String report = estimate.toString();
+        assertTrue(report.contains(String.format("player 1: %.4f (95%% interval %.4f to %.4f)",
+                1.0, estimate.getLowerBound(1), 1.0)), report);
+    }
+
+    @Test
+    @DisplayName("reject a pack of the wrong size")
+    public void testWrongPackSize() {
+        assertThrows(IllegalArgumentException.class, () -> new WinProbabilityEstimator(2, new int[15]));
+    }
+}